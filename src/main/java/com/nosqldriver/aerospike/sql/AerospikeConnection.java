@@ -58,6 +58,7 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
     private final AtomicReference<String> schema = new AtomicReference<>(null); // schema can be updated by use statement
     private final AerospikePolicyProvider policyProvider;
     private final KeyRecordFetcherFactory keyRecordFetcherFactory;
+    private final MetadataCatalog catalog;
     private volatile AtomicBoolean autoCommit = new AtomicBoolean(true);
     private final FunctionManager functionManager;
     private static final String CUSTOM_FUNCTION_PREFIX = "custom.function.";
@@ -74,7 +75,8 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
         client = new AerospikeSqlClient(() -> new AerospikeClient(parser.policy(url, props), hosts));
         schema.set(parser.schema(url));
         policyProvider = new AerospikePolicyProvider(client, info);
-        keyRecordFetcherFactory = new KeyRecordFetcherFactory(policyProvider.getQueryPolicy());
+        keyRecordFetcherFactory = new KeyRecordFetcherFactory(policyProvider.getQueryPolicy(), policyProvider.getDriverPolicy());
+        catalog = new MetadataCatalog(MetadataCatalog.loader(AerospikeDatabaseMetadata.clusterInfo(client, policyProvider), this), policyProvider.getDriverPolicy());
         FunctionManager fm = new FunctionManager(getMetaData());
         functionManager = init(fm, info);
         registerScript("stats", "distinct", "groupby");
@@ -132,6 +134,7 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
 
     @Override
     public void close() throws SQLException {
+        catalog.close();
         client.close();
     }
 
@@ -142,7 +145,7 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
 
     @Override
     public DatabaseMetaData getMetaData() {
-        return new AerospikeDatabaseMetadata(url, props, client, this, policyProvider, functionManager);
+        return new AerospikeDatabaseMetadata(url, props, client, this, policyProvider, functionManager, catalog);
     }
 
     @Override
@@ -1,8 +1,7 @@
 package com.nosqldriver.aerospike.sql;
 
 import com.aerospike.client.IAerospikeClient;
-import com.aerospike.client.Info;
-import com.aerospike.client.policy.InfoPolicy;
+import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.sql.DataColumn;
 import com.nosqldriver.sql.ListRecordSet;
 import com.nosqldriver.sql.SimpleWrapper;
@@ -18,7 +17,6 @@ import java.net.URL;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.RowIdLifetime;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -64,24 +62,33 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
     private final Properties clientInfo;
 
     private final Optional<Manifest> manifest;
-    private final Map<String, String> dbInfo;
+    private final ClusterInfo clusterInfo;
     private final IAerospikeClient client;
     private final Connection connection;
-    private final InfoPolicy infoPolicy;
     private final FunctionManager functionManager;
+    private final MetadataCatalog catalog;
     private static final String newLine = System.lineSeparator();
 
 
     public AerospikeDatabaseMetadata(String url, Properties info, IAerospikeClient client, Connection connection, AerospikePolicyProvider policyProvider, FunctionManager functionManager) {
+        this(url, info, client, connection, policyProvider, functionManager, new MetadataCatalog(MetadataCatalog.loader(clusterInfo(client, policyProvider), connection), policyProvider.getDriverPolicy()));
+    }
+
+    @VisibleForPackage
+    AerospikeDatabaseMetadata(String url, Properties info, IAerospikeClient client, Connection connection, AerospikePolicyProvider policyProvider, FunctionManager functionManager, MetadataCatalog catalog) {
         this.url = url;
         clientInfo = parser.clientInfo(url, info);
         this.client = client;
         this.connection = connection;
-        infoPolicy = policyProvider.getInfoPolicy();
         this.functionManager = functionManager;
+        this.catalog = catalog;
         manifest = manifest();
-        dbInfo = new HashMap<>();
-        Arrays.stream(client.getNodes()).forEach(node -> dbInfo.putAll(Info.request(infoPolicy, node)));
+        clusterInfo = clusterInfo(client, policyProvider);
+    }
+
+    @VisibleForPackage
+    static ClusterInfo clusterInfo(IAerospikeClient client, AerospikePolicyProvider policyProvider) {
+        return ClusterInfo.of(client, policyProvider.getInfoPolicy(), policyProvider.getDriverPolicy().clusterInfoTtl);
     }
 
     @Override
@@ -131,12 +138,12 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
 
     @Override
     public String getDatabaseProductName() {
-        return dbInfo.getOrDefault("edition", "Aerospike");
+        return clusterInfo.request().getOrDefault("edition", "Aerospike");
     }
 
     @Override
     public String getDatabaseProductVersion() {
-        return dbInfo.getOrDefault("build", "N/A");
+        return clusterInfo.request().getOrDefault("build", "N/A");
     }
 
     @Override
@@ -728,8 +735,7 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
     }
 
     public List<String> getCatalogNames() {
-        return Arrays.stream(client.getNodes())
-                .map(node -> Info.request(infoPolicy, node, "namespaces"))
+        return clusterInfo.request("namespaces").stream()
                 .map(str -> str.split(";"))
                 .map(Arrays::asList)
                 .flatMap(Collection::stream)
@@ -747,19 +753,21 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
     public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern) throws SQLException {
         Pattern tableNameRegex = tableNamePattern == null || "".equals(tableNamePattern) ? null : Pattern.compile(tableNamePattern.replace("%", ".*"));
 
-        Iterable<ResultSetMetaData> mds =
+        List<Properties> tables =
                 getTablesData(catalog)
                         .filter(p -> catalog == null || catalog.equals(p.getProperty("ns")))
                         .filter(p -> tableNameRegex == null || tableNameRegex.matcher(p.getProperty("set")).matches())
-                        .map(p -> getMetadata(p.getProperty("ns"), p.getProperty("set")))
                         .collect(toList());
+        Map<String, List<MetadataCatalog.Column>> tableColumns = this.catalog.getColumns(tables);
 
         List<List<?>> result = new ArrayList<>();
-        for(ResultSetMetaData md : mds) {
-            int n = md.getColumnCount();
-            for (int i = 1; i <= n; i++) {
+        for (String table : tables.stream().map(MetadataCatalog::name).distinct().collect(toList())) {
+            List<MetadataCatalog.Column> columns = tableColumns.get(table);
+            int n = columns.size();
+            for (int i = 0; i < n; i++) {
+                MetadataCatalog.Column column = columns.get(i);
                 //TODO: validate whether it is possible to retrieve write-block-size (128K by default) using java client and do it here if possible
-                result.add(asList("".equals(tableNamePattern) ? "" : md.getCatalogName(i), null, md.getTableName(1), md.getColumnName(i), md.getColumnType(i), md.getColumnTypeName(i), 0, 0, 0, 0, columnNullable, null, null, md.getColumnType(i), 0, md.getColumnType(i) == VARCHAR ? 128 * 1024 : 0, ordinal(md, md.getColumnName(i)), "YES", md.getCatalogName(i), null, md.getColumnTypeName(i), null, "NO", "NO"));
+                result.add(asList("".equals(tableNamePattern) ? "" : column.catalog, null, column.table, column.name, column.type, column.typeName, 0, 0, 0, 0, columnNullable, null, null, column.type, 0, column.type == VARCHAR ? 128 * 1024 : 0, ordinal(columns, column.name), "YES", column.catalog, null, column.typeName, null, "NO", "NO"));
             }
         }
 
@@ -768,21 +776,13 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
         return new ListRecordSet(null, "system", "columns", systemColumns(columns, sqlTypes), result);
     }
 
-    private int ordinal(ResultSetMetaData md, String columnName) {
-        int ordinal = 0;
-        try {
-            int n = md.getColumnCount();
-            for (int i = 1; i <= n; i++) {
-                if (columnName.equals(md.getColumnName(i))) {
-                    ordinal = i;
-                    break;
-                }
+    private int ordinal(List<MetadataCatalog.Column> columns, String columnName) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name.equals(columnName)) {
+                return i + 1;
             }
-        } catch (SQLException e) {
-            // ignore exception
-            // TODO: add logging
         }
-        return ordinal;
+        return 0;
     }
 
     @Override
@@ -827,6 +827,60 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
         return new ListRecordSet(null, "system", "primary_keys", systemColumns(columns, sqlTypes), tables);
     }
 
+    /**
+     * Returns number of records in the set calculated from set statistics of all nodes divided by the replication factor.
+     * The value may be inaccurate during migrations or if the set contains expired records that were not evicted yet.
+     */
+    public long getRecordsCount(String catalog, String table) {
+        return getRecordsCount(clusterInfo, catalog, table);
+    }
+
+    @VisibleForPackage
+    static long getRecordsCount(ClusterInfo clusterInfo, String catalog, String table) {
+        long objects = getInfo(clusterInfo, format("sets/%s/%s", catalog, table)).mapToLong(p -> Long.parseLong(p.getProperty("objects", "0"))).sum();
+        return objects / replicationFactor(clusterInfo, catalog);
+    }
+
+    private static int replicationFactor(ClusterInfo clusterInfo, String catalog) {
+        Map<String, String> namespace = new HashMap<>();
+        clusterInfo.request(format("namespace/%s", catalog)).stream()
+                .flatMap(s -> Arrays.stream(s.split(";")))
+                .map(s -> s.split("=", 2))
+                .filter(kv -> kv.length == 2)
+                .forEach(kv -> namespace.put(kv[0], kv[1]));
+        String factor = Stream.of("effective_replication_factor", "replication-factor", "repl-factor").map(namespace::get).filter(Objects::nonNull).findFirst().orElse("1");
+        return Math.max(1, Math.min(Integer.parseInt(factor), clusterInfo.size()));
+    }
+
+    /**
+     * Estimates number of entries of secondary index on given bin that match given number of distinct bin values.
+     * The estimation is based on statistics {@code sindex/<namespace>/<index>} of all nodes: {@code entries_per_bval}
+     * if it is reported by the server, otherwise ratio of {@code entries} to {@code keys}.
+     * @return the estimated number of entries or empty value if the bin is not indexed or the statistics are not available
+     */
+    public Optional<Double> estimateIndexEntries(String catalog, String table, String bin, double values) {
+        Optional<String> index = this.catalog.getIndexes().stream()
+                .filter(p -> catalog.equals(p.getProperty("ns")) && Objects.equals(table, p.getProperty("set")) && bin.equals(p.getProperty("bin")))
+                .map(p -> p.getProperty("indexname"))
+                .findFirst();
+        if (!index.isPresent()) {
+            return Optional.empty();
+        }
+        double estimation = 0;
+        for (String node : clusterInfo.request(format("sindex/%s/%s", catalog, index.get()))) {
+            Map<String, String> stat = new HashMap<>();
+            Arrays.stream(node.split(";")).map(s -> s.split("=", 2)).filter(kv -> kv.length == 2).forEach(kv -> stat.put(kv[0].trim(), kv[1].trim()));
+            if (!stat.containsKey("entries")) {
+                return Optional.empty();
+            }
+            double entries = Double.parseDouble(stat.get("entries"));
+            double keys = Double.parseDouble(stat.getOrDefault("keys", "0"));
+            double perValue = stat.containsKey("entries_per_bval") ? Double.parseDouble(stat.get("entries_per_bval")) : keys > 0 ? entries / keys : 0;
+            estimation += Math.min(entries, perValue * values);
+        }
+        return Optional.of(estimation);
+    }
+
     public List<String> getTableNames(String catalog) {
         return getTablesData(catalog).filter(p -> catalog == null || catalog.equals(p.getProperty("ns")))
                 .map(p -> p.getProperty("set"))
@@ -834,13 +888,12 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
     }
 
     private Stream<Properties> getTablesData(String catalog) {
-        return getInfo(catalog == null ? "sets" : format("sets/%s", catalog));
+        return this.catalog.getTables().stream().filter(p -> catalog == null || catalog.equals(p.getProperty("ns")));
     }
 
-    private Stream<Properties> getInfo(String command) {
-        return Arrays.stream(client.getNodes())
-                .map(node -> Info.request(infoPolicy, node, command))
-                .filter(Objects::nonNull)
+    @VisibleForPackage
+    static Stream<Properties> getInfo(ClusterInfo clusterInfo, String command) {
+        return clusterInfo.request(command).stream()
                 .map(s -> s.split(";"))
                 .flatMap(Arrays::stream)
                 .map(s -> s.replace(":", newLine))
@@ -919,11 +972,14 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
 
     @Override
     public ResultSet getIndexInfo(String catalog, String schema, String table, boolean unique, boolean approximate) {
-        Iterable<List<?>> indexes =
-                getInfo("sindex-list:")
+        List<Properties> indexProperties =
+                this.catalog.getIndexes().stream()
                         .filter(p -> catalog == null || catalog.equals(p.getProperty("ns")))
                         .filter(p -> table == null || table.equals(p.getProperty("set")))
-                        .map(p -> asList(p.getProperty("ns"), null, p.getProperty("set"), 0, null, p.getProperty("indexname"), tableIndexClustered, ordinal(getMetadata(p.getProperty("ns"), p.getProperty("set")), p.getProperty("bin")), p.getProperty("bin"), null, null /*TODO number of unique values in index: stat index returns relevant information */, 0, null))
+                        .collect(toList());
+        Map<String, List<MetadataCatalog.Column>> tableColumns = this.catalog.getColumns(indexProperties);
+        Iterable<List<?>> indexes = indexProperties.stream()
+                        .map(p -> asList(p.getProperty("ns"), null, p.getProperty("set"), 0, null, p.getProperty("indexname"), tableIndexClustered, ordinal(tableColumns.get(MetadataCatalog.name(p)), p.getProperty("bin")), p.getProperty("bin"), null, null /*TODO number of unique values in index: stat index returns relevant information */, 0, null))
                         .collect(toList());
 
 
@@ -933,15 +989,11 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
     }
 
     public List<List<?>> getIndexInfo() {
-        return getInfo("sindex-list:")
+        return catalog.getIndexes().stream()
                 .map(p -> asList(p.getProperty("set"), p.getProperty("indexname"), p.getProperty("bin"), p.getProperty("type")))
                 .collect(toList());
     }
 
-    private ResultSetMetaData getMetadata(String namespace, String table) {
-        return sqlsafe(() -> connection.createStatement().executeQuery(format("select * from %s.%s limit 1", namespace, table)).getMetaData());
-    }
-
     @Override
     public boolean supportsResultSetType(int type) {
         return false;
@@ -1149,7 +1201,7 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
     @Override
     public ResultSet getFunctions(String catalog, String schemaPattern, String functionNamePattern) {
         List<List<?>> clientFunctions = functionManager.getFunctionNames().stream().map(name -> asList(null, null, name, "Java", functionResultUnknown, name)).collect(toList());
-        List<List<?>> luaFunctions = Stream.of("min", "max", "sum", "avg", "sumsqs", "count", "distinct").map(name -> asList(null, null, name, "Lua", functionResultUnknown, name)).collect(toList());
+        List<List<?>> luaFunctions = Stream.of("min", "max", "sum", "avg", "sumsqs", "count", "distinct", "approx_count_distinct", "approx_percentile").map(name -> asList(null, null, name, "Lua", functionResultUnknown, name)).collect(toList());
 
         List<List<?>> functions = new ArrayList<>();
         functions.addAll(clientFunctions);
@@ -1214,7 +1266,7 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
         return range(0, names.length).boxed().map(i -> DATA.create(catalog, table, names[i], names[i]).withType(types[i])).collect(toList());
     }
 
-    private <R> R iosafe(ThrowingSupplier<R, IOException> supplier) {
+    private static <R> R iosafe(ThrowingSupplier<R, IOException> supplier) {
         try {
             return supplier.get();
         } catch (IOException e) {
@@ -1222,12 +1274,4 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
         }
     }
 
-    private <R> R sqlsafe(ThrowingSupplier<R, SQLException> supplier) {
-        try {
-            return supplier.get();
-        } catch (SQLException e) {
-            return SneakyThrower.sneakyThrow(e);
-        }
-    }
-
 }
@@ -0,0 +1,42 @@
+package com.nosqldriver.aerospike.sql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static java.lang.String.format;
+
+/**
+ * Select statement split into several partitions by digest of record key. The partitions are disjoint and together
+ * cover the whole result, so they can be read concurrently by several consumers. Partition is identified by its index
+ * only, so consumers running in other processes can read their partitions using the same query and number of partitions.
+ * Queries by primary key are not split: their records are returned by the first partition.
+ * Queries with LIMIT, OFFSET, ORDER BY, DISTINCT or aggregation cannot be partitioned.
+ */
+public class AerospikePartitionedQuery {
+    private final AerospikeStatement statement;
+    private final String sql;
+    private final int partitions;
+
+    AerospikePartitionedQuery(AerospikeStatement statement, String sql, int partitions) {
+        this.statement = statement;
+        this.sql = sql;
+        this.partitions = partitions;
+    }
+
+    public int getPartitionsCount() {
+        return partitions;
+    }
+
+    /**
+     * Executes the query for one partition. This method can be called from any thread.
+     * @param index index of the partition starting from 0
+     * @return records of the partition
+     * @throws SQLException if index is out of range or the query fails
+     */
+    public ResultSet partition(int index) throws SQLException {
+        if (index < 0 || index >= partitions) {
+            throw new SQLException(format("Partition index must be between 0 and %d but was %d", partitions - 1, index));
+        }
+        return statement.executePartition(sql, partitions, index);
+    }
+}
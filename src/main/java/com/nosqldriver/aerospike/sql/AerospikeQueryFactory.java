@@ -5,6 +5,8 @@ import com.aerospike.client.IAerospikeClient;
 import com.aerospike.client.Key;
 import com.aerospike.client.Record;
 import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.IndexCollectionType;
 import com.aerospike.client.query.PredExp;
 import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.aerospike.sql.query.BinaryOperation;
@@ -28,12 +30,15 @@ import com.nosqldriver.util.FunctionManager;
 import com.nosqldriver.util.SneakyThrower;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Alias;
+import net.sf.jsqlparser.expression.ArrayExpression;
 import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.CaseExpression;
 import net.sf.jsqlparser.expression.DoubleValue;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
 import net.sf.jsqlparser.expression.JdbcParameter;
 import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
 import net.sf.jsqlparser.expression.NullValue;
 import net.sf.jsqlparser.expression.Parenthesis;
 import net.sf.jsqlparser.expression.SignedExpression;
@@ -42,10 +47,19 @@ import net.sf.jsqlparser.expression.operators.arithmetic.Addition;
 import net.sf.jsqlparser.expression.operators.arithmetic.Division;
 import net.sf.jsqlparser.expression.operators.arithmetic.Multiplication;
 import net.sf.jsqlparser.expression.operators.arithmetic.Subtraction;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
 import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
 import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
 import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
 import net.sf.jsqlparser.expression.operators.relational.ItemsListVisitorAdapter;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
 import net.sf.jsqlparser.expression.operators.relational.MultiExpressionList;
 import net.sf.jsqlparser.parser.CCJSqlParserManager;
 import net.sf.jsqlparser.schema.Column;
@@ -84,18 +98,23 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -117,7 +136,26 @@ import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
 public class AerospikeQueryFactory {
+    private static final Pattern COMPUTATION = Pattern.compile("[-+*/]");
+    // TABLESAMPLE clause and SAMPLE hint are not supported by the SQL parser, so they are extracted from the query before parsing
+    private static final Pattern TABLESAMPLE = Pattern.compile("\\s+tablesample\\s*(?:bernoulli|system)?\\s*\\(\\s*(\\d+(?:\\.\\d*)?)\\s*(?:percent)?\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SAMPLE_HINT = Pattern.compile("/\\*\\+\\s*sample\\s*\\(\\s*(\\d+)\\s*\\)\\s*\\*/", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NUMBER = Pattern.compile("^\\s*([-+]?\\d+(\\.\\d*)?)?\\s*$");
     private static final Collection<Class> INT_CLASSES = new HashSet<>(Arrays.asList(Byte.class, Short.class, Integer.class, Long.class));
+    private static final Map<String, IndexCollectionType> collectionFunctions = new HashMap<>();
+    static {
+        collectionFunctions.put("array_contains", IndexCollectionType.LIST);
+        collectionFunctions.put("map_contains_key", IndexCollectionType.MAPKEYS);
+        collectionFunctions.put("map_contains_value", IndexCollectionType.MAPVALUES);
+    }
+    // metadata of record that can be compared with integer values in where clause; time is measured in milliseconds since epoch.
+    // The names are case sensitive like PK, so bins with the same names in lower case (e.g. void_time) can be still used.
+    private static final Map<String, Supplier<PredExp>> recordMetadata = new HashMap<>();
+    static {
+        recordMetadata.put("LAST_UPDATE_TIME", PredExp::recLastUpdate);
+        recordMetadata.put("VOID_TIME", PredExp::recVoidTime);
+    }
+    private static final Collection<String> geoFunctions = new HashSet<>(Arrays.asList("st_within", "st_contains", "st_dwithin"));
     private CCJSqlParserManager parserManager = new CCJSqlParserManager();
     private final Statement statement;
     private String schema;
@@ -141,6 +179,21 @@ public class AerospikeQueryFactory {
     QueryContainer<ResultSet> createQueryPlan(String sql) throws SQLException {
         try {
             QueryHolder queries = new QueryHolder(schema, indexes, policyProvider, functionManager);
+            Matcher tableSample = TABLESAMPLE.matcher(sql);
+            if (tableSample.find()) {
+                double percent = Double.parseDouble(tableSample.group(1));
+                if (percent <= 0 || percent > 100) {
+                    throw new SQLException(format("Sample percent must be greater than 0 and not greater than 100 but was %s", tableSample.group(1)));
+                }
+                queries.setSamplePercent(percent);
+                sql = tableSample.replaceFirst("");
+            }
+            Matcher sampleHint = SAMPLE_HINT.matcher(sql);
+            Long sampleSize = null;
+            if (sampleHint.find()) {
+                sampleSize = Long.parseLong(sampleHint.group(1));
+                sql = sampleHint.replaceFirst(" ");
+            }
             parserManager.parse(new StringReader(sql)).accept(new StatementVisitorAdapter() {
                 @Override
                 public void visit(Select select) {
@@ -250,6 +303,9 @@ public class AerospikeQueryFactory {
                 }
             });
 
+            if (sampleSize != null) {
+                queries.setSampleSize(sampleSize);
+            }
             return queries;
         } catch (JSQLParserException e) {
             String msg = e.getCause() == null ? e.getMessage() : e.getCause().getMessage();
@@ -397,17 +453,47 @@ public class AerospikeQueryFactory {
                 AtomicBoolean between = new AtomicBoolean(false);
                 AtomicInteger betweenEdge = new AtomicInteger(0);
                 AtomicBoolean in = new AtomicBoolean(false);
+                if (where != null && plainSelect.getJoins() == null && !hasParameters(where)) {
+                    conjuncts(where).forEach(conjunct -> setFloatingPointRangeFilter(conjunct, queries));
+                    // comparison with floating point value cannot be expressed by predicates, so where clause without
+                    // other translatable conditions is evaluated on the client entirely
+                    if (conjuncts(where).stream().noneMatch(AerospikeQueryFactory::isPushable) && conjuncts(where).stream().anyMatch(AerospikeQueryFactory::hasFloatingPointComparison)) {
+                        setClientSideCondition(queries, where);
+                        where = null;
+                    }
+                }
                 if (where != null) {
+                    Expression fullWhere = where;
+                    // Conjuncts that cannot be translated to predicates are evaluated on the client, the rest is pushed down to the cluster.
+                    // Where clause with joins or parameters of prepared statement is either pushed down or evaluated on the client entirely.
+                    List<Expression> conjuncts = conjuncts(where);
+                    Map<Boolean, List<Expression>> pushable = conjuncts.stream().collect(Collectors.partitioningBy(AerospikeQueryFactory::isPushable, Collectors.toCollection(ArrayList::new)));
+                    if (plainSelect.getJoins() == null && !hasParameters(where) && plainSelect.getFromItem() instanceof Table) {
+                        // comparisons of map fields are evaluated on the client, however records that cannot match are filtered out by the cluster
+                        pushable.get(false).stream().map(conjunct -> mapFieldPredicate(conjunct, queries)).filter(Objects::nonNull).forEach(pushable.get(true)::add);
+                    }
+                    boolean partialPushdown = plainSelect.getJoins() == null && !hasParameters(where) && !pushable.get(true).isEmpty() && !pushable.get(false).isEmpty();
+                    if (partialPushdown) {
+                        setClientSideCondition(queries, conjunction(pushable.get(false)));
+                        where = pushable.get(true).stream().reduce(AndExpression::new).orElseThrow(IllegalStateException::new);
+                    }
                     String whereExpression = where.toString();
                     //TODO: this regex does not include parentheses because they conflict with "in (1, 2, 3)", so I have to find a way to safely detect composite mathematical expressions and function calls in where clause.
-                    if (Pattern.compile("[-+*/]").matcher(whereExpression).find()) {
-                        queries.setWhereExpression(whereExpression);
+                    if (!partialPushdown && COMPUTATION.matcher(withoutIndexPredicates(where)).find()) {
+                        setClientSideCondition(queries, where);
                     }
                     AtomicBoolean predExpsEmpty = new AtomicBoolean(true);
                     BinaryOperation operation = new BinaryOperation();
                     AtomicBoolean ignoreNextOp = new AtomicBoolean(false);
                     AtomicBoolean isPreparedStatement = new AtomicBoolean(false);
                     where.accept(new ExpressionVisitorAdapter() {
+                        @Override
+                        public void visit(OrExpression expr) {
+                            queries.startDisjunction();
+                            super.visit(expr);
+                            queries.endDisjunction();
+                        }
+
                         @Override
                         public void visit(Between expr) {
                             //System.out.println("visitBinaryExpression " + expr + " START");
@@ -479,7 +565,7 @@ public class AerospikeQueryFactory {
                             if (!operator.isPresent() || (operator.get().doesRequireColumn() && operation.getColumn() == null) || whereExpression.contains("[")) {
                                 queries.queries(operation.getTable()).removeLastPredicates(4);
                                 ignoreNextOp.set(true);
-                                queries.setWhereExpression(whereExpression);
+                                setClientSideCondition(queries, fullWhere);
                             } else {
                                 if (ignoreNextOp.get() && ("AND".equals(op) || "OR".equals(op))) {
                                     ignoreNextOp.set(false);
@@ -526,8 +612,8 @@ public class AerospikeQueryFactory {
                             if (in.get()) {
                                 return;
                             }
-                            queries.queries(operation.getTable()).addPredExp(PredExp.integerBin(operation.getColumn()));
-                            queries.queries(operation.getTable()).addPredExp(PredExp.integerValue(value.getValue()));
+                            queries.queries(operation.getTable()).addPredExp(integerOperand(operation.getColumn()));
+                            queries.queries(operation.getTable()).addPredExp(PredExp.integerValue(integerOperandValue(operation.getColumn(), value.getValue())));
                             lastValueType.set(Long.class);
                             if (between.get()) {
                                 int edge = betweenEdge.incrementAndGet();
@@ -560,6 +646,9 @@ public class AerospikeQueryFactory {
                         @Override
                         public void visit(JdbcParameter parameter) {
                             //System.out.println("visit(JdbcParameter parameter): " + parameter);
+                            if (recordMetadata.containsKey(operation.getColumn())) {
+                                SneakyThrower.sneakyThrow(new SQLException(format("%s cannot be compared with parameter of prepared statement", operation.getColumn())));
+                            }
                             queries.queries(operation.getTable()).addPredExp(new ColumnRefPredExp(set, operation.getColumn()));
                             queries.queries(operation.getTable()).addPredExp(new PredExpValuePlaceholder(parameter.getIndex()));
                             isPreparedStatement.set(true);
@@ -567,10 +656,34 @@ public class AerospikeQueryFactory {
 
                         @Override
                         public void visit(net.sf.jsqlparser.expression.Function function) {
+                            if (isIndexPredicate(function)) {
+                                Column column = (Column)function.getParameters().getExpressions().get(0);
+                                QueryHolder holder = queries.queries(ofNullable(column.getTable()).map(t -> stripQuotes(t.getName())).orElse(null));
+                                predExpsEmpty.set(holder.getPredExps().isEmpty());
+                                indexPredicatePredExps(function).forEach(holder::addPredExp);
+                                lastValueType.set(isCollectionPredicate(function) ? literal(function.getParameters().getExpressions().get(1)).getClass() : String.class);
+                                return;
+                            }
                             SneakyThrower.call(() -> operation.addValue(engine.eval(function.toString())));
                         }
                     });
 
+                    if (plainSelect.getJoins() == null) {
+                        conjuncts(where).forEach(conjunct -> setDisjunctionFilters(conjunct, queries));
+                        conjuncts(where).forEach(conjunct -> setIndexPredicateFilter(conjunct, queries));
+                        if (queries.hasPkRange()) {
+                            // range of primary keys is retrieved by keys rather than by query, so the predicates are not used
+                            // and other conditions have to be evaluated on the client
+                            List<Expression> otherConditions = conjuncts(where).stream().filter(c -> !isPkCondition(c)).collect(Collectors.toList());
+                            if (!otherConditions.isEmpty()) {
+                                Expression others = conjunction(otherConditions);
+                                String residual = queries.getWhereExpression();
+                                queries.setWhereExpression(residual == null ? others.toString() : format("(%s) AND %s", residual, others));
+                                queries.addFilterColumns(clientSideColumns(others));
+                            }
+                        }
+                    }
+
                     if (!predExpsEmpty.get()) {
                         List<PredExp> predExps = queries.queries(operation.getTable()).getPredExps();
                         if (!predExps.isEmpty() && !"AndOr".equals(predExps.get(predExps.size() - 1).getClass().getSimpleName())) {
@@ -608,6 +721,411 @@ public class AerospikeQueryFactory {
         });
     }
 
+    private static boolean isPkCondition(Expression expr) {
+        Expression left = expr instanceof Between ? ((Between) expr).getLeftExpression() : expr instanceof BinaryExpression ? ((BinaryExpression) expr).getLeftExpression() : null;
+        return left instanceof Column && "PK".equals(stripQuotes(((Column) left).getColumnName()));
+    }
+
+    private static List<Expression> conjuncts(Expression expr) {
+        if (expr instanceof Parenthesis) {
+            return conjuncts(((Parenthesis) expr).getExpression());
+        }
+        if (expr instanceof AndExpression) {
+            List<Expression> conjuncts = new ArrayList<>(conjuncts(((AndExpression) expr).getLeftExpression()));
+            conjuncts.addAll(conjuncts(((AndExpression) expr).getRightExpression()));
+            return conjuncts;
+        }
+        return Collections.singletonList(expr);
+    }
+
+    /**
+     * Joins conditions evaluated on the client. {@link #conjuncts(Expression)} removes parentheses, so each condition
+     * is parenthesized again, otherwise e.g. disjunction would bind to its neighbours.
+     */
+    private static Expression conjunction(List<Expression> conjuncts) {
+        return conjuncts.stream().map(c -> (Expression)new Parenthesis(c)).reduce(AndExpression::new).orElseThrow(IllegalStateException::new);
+    }
+
+    private static void setClientSideCondition(QueryHolder queries, Expression condition) {
+        Collection<String> columns = clientSideColumns(condition);
+        queries.setWhereExpression(condition.toString());
+        queries.addFilterColumns(columns);
+    }
+
+    /**
+     * Returns columns referenced by condition evaluated on the client. Record metadata is available to predicates only,
+     * so it cannot be used in such condition.
+     */
+    private static Collection<String> clientSideColumns(Expression condition) {
+        Collection<String> columns = referencedColumns(condition);
+        columns.stream().filter(recordMetadata::containsKey).findFirst().ifPresent(name -> SneakyThrower.sneakyThrow(new SQLException(format(
+                "%s can be only compared with integer literal by condition executed by the cluster and cannot be evaluated on the client", name))));
+        return columns;
+    }
+
+    /**
+     * Returns names of columns referenced by the expression; field of map (e.g. {@code attrs[color]}) is returned as is.
+     */
+    private static Collection<String> referencedColumns(Expression expr) {
+        Collection<String> names = new LinkedHashSet<>();
+        expr.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(Column column) {
+                names.add(stripQuotes(column.getColumnName()));
+            }
+
+            @Override
+            public void visit(ArrayExpression array) {
+                names.add(array.toString());
+            }
+        });
+        return names;
+    }
+
+    private static List<Expression> disjuncts(Expression expr) {
+        if (expr instanceof Parenthesis) {
+            return disjuncts(((Parenthesis) expr).getExpression());
+        }
+        if (expr instanceof OrExpression) {
+            List<Expression> disjuncts = new ArrayList<>(disjuncts(((OrExpression) expr).getLeftExpression()));
+            disjuncts.addAll(disjuncts(((OrExpression) expr).getRightExpression()));
+            return disjuncts;
+        }
+        if (expr instanceof InExpression && !((InExpression) expr).isNot() && ((InExpression) expr).getRightItemsList() instanceof ExpressionList) {
+            Expression left = ((InExpression) expr).getLeftExpression();
+            return ((ExpressionList)((InExpression) expr).getRightItemsList()).getExpressions().stream().map(e -> {
+                EqualsTo eq = new EqualsTo();
+                eq.setLeftExpression(left);
+                eq.setRightExpression(e);
+                return eq;
+            }).collect(Collectors.toList());
+        }
+        return Collections.singletonList(expr);
+    }
+
+    /**
+     * Disjunction of equality and {@code BETWEEN} conditions on the same bin (including {@code IN}) is executed
+     * as several index queries if the bin is indexed.
+     */
+    private static void setDisjunctionFilters(Expression conjunct, QueryHolder queries) {
+        Set<String> bins = new HashSet<>();
+        Set<Class<?>> types = new HashSet<>();
+        List<Filter> filters = new ArrayList<>();
+        double values = 0;
+        for (Expression disjunct : disjuncts(conjunct)) {
+            if (disjunct instanceof EqualsTo && ((EqualsTo) disjunct).getLeftExpression() instanceof Column) {
+                String bin = stripQuotes(((Column)((EqualsTo) disjunct).getLeftExpression()).getColumnName());
+                Expression value = ((EqualsTo) disjunct).getRightExpression();
+                if (value instanceof LongValue) {
+                    filters.add(Filter.equal(bin, ((LongValue) value).getValue()));
+                } else if (value instanceof StringValue) {
+                    filters.add(Filter.equal(bin, ((StringValue) value).getValue()));
+                } else {
+                    return;
+                }
+                bins.add(bin);
+                types.add(value.getClass());
+                values++;
+            } else if (disjunct instanceof Between && !((Between) disjunct).isNot() && ((Between) disjunct).getLeftExpression() instanceof Column &&
+                    ((Between) disjunct).getBetweenExpressionStart() instanceof LongValue && ((Between) disjunct).getBetweenExpressionEnd() instanceof LongValue) {
+                String bin = stripQuotes(((Column)((Between) disjunct).getLeftExpression()).getColumnName());
+                long from = ((LongValue)((Between) disjunct).getBetweenExpressionStart()).getValue();
+                long to = ((LongValue)((Between) disjunct).getBetweenExpressionEnd()).getValue();
+                filters.add(Filter.range(bin, from, to));
+                bins.add(bin);
+                types.add(LongValue.class);
+                values += Math.max((double)to - from + 1, 0);
+            } else {
+                return;
+            }
+        }
+        if (bins.size() == 1 && types.size() == 1 && !bins.contains("PK")) {
+            queries.setFilters(filters, bins.iterator().next(), values);
+        }
+    }
+
+    /**
+     * Checks whether the expression can be translated to filter or predicate: it may contain only comparisons
+     * of column with literal values combined by AND and OR.
+     */
+    private static boolean isPushable(Expression expr) {
+        String text = withoutIndexPredicates(expr);
+        if (COMPUTATION.matcher(text).find() || text.contains("[") || hasFloatingPointComparison(expr)) {
+            return false;
+        }
+        AtomicBoolean pushable = new AtomicBoolean(true);
+        expr.accept(new ExpressionVisitorAdapter() {
+            @Override
+            protected void visitBinaryExpression(BinaryExpression expr) {
+                Optional<Operator> operator = Operator.find(expr.getStringExpression());
+                if (!operator.isPresent() || (operator.get().doesRequireColumn() && !(expr.getLeftExpression() instanceof Column))) {
+                    pushable.set(false);
+                }
+                super.visitBinaryExpression(expr);
+            }
+
+            @Override
+            public void visit(net.sf.jsqlparser.expression.Function function) {
+                if (!isIndexPredicate(function)) {
+                    pushable.set(false);
+                }
+            }
+
+            @Override
+            public void visit(SignedExpression expr) {
+                pushable.set(false);
+            }
+
+            @Override
+            public void visit(IsNullExpression expr) {
+                pushable.set(false);
+            }
+
+            @Override
+            public void visit(NotExpression expr) {
+                pushable.set(false);
+            }
+
+            @Override
+            public void visit(CaseExpression expr) {
+                pushable.set(false);
+            }
+        });
+        return pushable.get();
+    }
+
+    /**
+     * Returns predicate that reads integer bin or record metadata (e.g. {@code LAST_UPDATE_TIME}) with given name.
+     */
+    private static PredExp integerOperand(String column) {
+        return column != null && recordMetadata.containsKey(column) ? recordMetadata.get(column).get() : PredExp.integerBin(column);
+    }
+
+    private static long integerOperandValue(String column, long value) {
+        return column != null && recordMetadata.containsKey(column) ? TimeUnit.MILLISECONDS.toNanos(value) : value;
+    }
+
+    /**
+     * Checks whether the function is a collection predicate (e.g. {@code array_contains(bin, 'value')}) that can be
+     * executed using collection index or predicates.
+     */
+    private static boolean isCollectionPredicate(net.sf.jsqlparser.expression.Function function) {
+        if (function.getName() == null || !collectionFunctions.containsKey(function.getName().toLowerCase()) || function.getParameters() == null) {
+            return false;
+        }
+        List<Expression> args = function.getParameters().getExpressions();
+        return args.size() == 2 && args.get(0) instanceof Column && literal(args.get(1)) != null;
+    }
+
+    /**
+     * Checks whether the function is a geospatial predicate with literal arguments, i.e. {@code st_within(bin, 'geojson')},
+     * {@code st_contains(bin, 'geojson')} or {@code st_dwithin(bin, lng, lat, radius)}.
+     */
+    private static boolean isGeoPredicate(net.sf.jsqlparser.expression.Function function) {
+        if (function.getName() == null || !geoFunctions.contains(function.getName().toLowerCase()) || function.getParameters() == null) {
+            return false;
+        }
+        List<Expression> args = function.getParameters().getExpressions();
+        if (args.isEmpty() || !(args.get(0) instanceof Column)) {
+            return false;
+        }
+        if ("st_dwithin".equalsIgnoreCase(function.getName())) {
+            return args.size() == 4 && args.subList(1, 4).stream().allMatch(arg -> number(arg) != null);
+        }
+        return args.size() == 2 && args.get(1) instanceof StringValue;
+    }
+
+    private static boolean isIndexPredicate(net.sf.jsqlparser.expression.Function function) {
+        return isCollectionPredicate(function) || isGeoPredicate(function);
+    }
+
+    /**
+     * Returns text of expression without index predicates, so that GeoJSON literals (e.g. negative coordinates)
+     * are not taken for computations.
+     */
+    private static String withoutIndexPredicates(Expression expr) {
+        List<String> predicates = new ArrayList<>();
+        expr.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(net.sf.jsqlparser.expression.Function function) {
+                if (isIndexPredicate(function)) {
+                    predicates.add(function.toString());
+                } else {
+                    super.visit(function);
+                }
+            }
+        });
+        String text = expr.toString();
+        for (String predicate : predicates) {
+            text = text.replace(predicate, "");
+        }
+        return text;
+    }
+
+    private static Double number(Expression expr) {
+        if (expr instanceof LongValue) {
+            return (double)((LongValue) expr).getValue();
+        }
+        if (expr instanceof DoubleValue) {
+            return ((DoubleValue) expr).getValue();
+        }
+        if (expr instanceof SignedExpression) {
+            Double value = number(((SignedExpression) expr).getExpression());
+            return value == null ? null : ((SignedExpression) expr).getSign() == '-' ? -value : value;
+        }
+        return null;
+    }
+
+    private static Object literal(Expression expr) {
+        if (expr instanceof LongValue) {
+            return ((LongValue) expr).getValue();
+        }
+        if (expr instanceof StringValue) {
+            return ((StringValue) expr).getValue();
+        }
+        return null;
+    }
+
+    private static List<PredExp> collectionPredExps(IndexCollectionType type, String bin, Object value) {
+        String var = "v";
+        List<PredExp> predExps = new ArrayList<>();
+        if (value instanceof Long) {
+            predExps.addAll(Arrays.asList(PredExp.integerVar(var), PredExp.integerValue((Long)value), PredExp.integerEqual()));
+        } else {
+            predExps.addAll(Arrays.asList(PredExp.stringVar(var), PredExp.stringValue((String)value), PredExp.stringEqual()));
+        }
+        switch (type) {
+            case LIST: predExps.addAll(Arrays.asList(PredExp.listBin(bin), PredExp.listIterateOr(var))); break;
+            case MAPKEYS: predExps.addAll(Arrays.asList(PredExp.mapBin(bin), PredExp.mapKeyIterateOr(var))); break;
+            case MAPVALUES: predExps.addAll(Arrays.asList(PredExp.mapBin(bin), PredExp.mapValIterateOr(var))); break;
+            default: throw new IllegalArgumentException(type.name());
+        }
+        return predExps;
+    }
+
+    /**
+     * Creates predicate that is necessary condition of equality of map field and literal (e.g. {@code profile[country] = 'US'})
+     * and can be pushed down: the map must contain the key and the value. Values that look like numbers are not checked
+     * because the client side comparison treats numbers and their string representations as equal.
+     */
+    private static Expression mapFieldPredicate(Expression conjunct, QueryHolder queries) {
+        if (!(conjunct instanceof EqualsTo) || !(((EqualsTo) conjunct).getLeftExpression() instanceof ArrayExpression)) {
+            return null;
+        }
+        ArrayExpression field = (ArrayExpression)((EqualsTo) conjunct).getLeftExpression();
+        if (!(field.getObjExpression() instanceof Column) || !(field.getIndexExpression() instanceof Column)) {
+            return null;
+        }
+        Column column = (Column)field.getObjExpression();
+        String name = stripQuotes(column.getColumnName());
+        if (queries.getColumnByAlias(name).filter(c -> !name.equals(c.getName())).isPresent()) {
+            return null; // alias of computed value, e.g. deserialize(data) as obj
+        }
+        Expression predicate = mapPredicate("map_contains_key", column, new StringValue(stripQuotes(((Column) field.getIndexExpression()).getColumnName())));
+        Expression value = ((EqualsTo) conjunct).getRightExpression();
+        if (value instanceof StringValue && !NUMBER.matcher(((StringValue) value).getValue()).matches()) {
+            predicate = new AndExpression(predicate, mapPredicate("map_contains_value", column, value));
+        }
+        return predicate;
+    }
+
+    private static Expression mapPredicate(String name, Column column, Expression value) {
+        net.sf.jsqlparser.expression.Function function = new net.sf.jsqlparser.expression.Function();
+        function.setName(name);
+        function.setParameters(new ExpressionList(column, value));
+        return function;
+    }
+
+    private static List<PredExp> geoPredExps(net.sf.jsqlparser.expression.Function function) {
+        String bin = stripQuotes(((Column)function.getParameters().getExpressions().get(0)).getColumnName());
+        boolean contains = "st_contains".equalsIgnoreCase(function.getName());
+        return Arrays.asList(PredExp.geoJSONBin(bin), PredExp.geoJSONValue(geoJson(function)), contains ? PredExp.geoJSONContains() : PredExp.geoJSONWithin());
+    }
+
+    private static String geoJson(net.sf.jsqlparser.expression.Function function) {
+        List<Expression> args = function.getParameters().getExpressions();
+        if ("st_dwithin".equalsIgnoreCase(function.getName())) {
+            return format("{\"type\":\"AeroCircle\",\"coordinates\":[[%s,%s],%s]}", number(args.get(1)), number(args.get(2)), number(args.get(3)));
+        }
+        return ((StringValue)args.get(1)).getValue();
+    }
+
+    private static List<PredExp> indexPredicatePredExps(net.sf.jsqlparser.expression.Function function) {
+        if (isGeoPredicate(function)) {
+            return geoPredExps(function);
+        }
+        Column column = (Column)function.getParameters().getExpressions().get(0);
+        Object value = literal(function.getParameters().getExpressions().get(1));
+        return collectionPredExps(collectionFunctions.get(function.getName().toLowerCase()), stripQuotes(column.getColumnName()), value);
+    }
+
+    private static void setIndexPredicateFilter(Expression conjunct, QueryHolder queries) {
+        if (!(conjunct instanceof net.sf.jsqlparser.expression.Function) || !isIndexPredicate((net.sf.jsqlparser.expression.Function) conjunct)) {
+            return;
+        }
+        net.sf.jsqlparser.expression.Function function = (net.sf.jsqlparser.expression.Function) conjunct;
+        List<Expression> args = function.getParameters().getExpressions();
+        String bin = stripQuotes(((Column)args.get(0)).getColumnName());
+        if (isGeoPredicate(function)) {
+            switch (function.getName().toLowerCase()) {
+                case "st_within": queries.setGeoFilter(Filter.geoWithinRegion(bin, geoJson(function)), bin); break;
+                case "st_contains": queries.setGeoFilter(Filter.geoContains(bin, geoJson(function)), bin); break;
+                default: queries.setGeoFilter(Filter.geoWithinRadius(bin, number(args.get(1)), number(args.get(2)), number(args.get(3))), bin); break;
+            }
+            return;
+        }
+        IndexCollectionType type = collectionFunctions.get(function.getName().toLowerCase());
+        Object value = literal(args.get(1));
+        Filter filter = value instanceof Long ? Filter.contains(bin, type, (Long)value) : Filter.contains(bin, type, (String)value);
+        queries.setCollectionFilter(filter, bin, type);
+    }
+
+    private static boolean hasFloatingPointComparison(Expression expr) {
+        AtomicBoolean found = new AtomicBoolean(false);
+        expr.accept(new ExpressionVisitorAdapter() {
+            @Override
+            protected void visitBinaryExpression(BinaryExpression expr) {
+                if (expr instanceof ComparisonOperator && expr.getRightExpression() instanceof DoubleValue) {
+                    found.set(true);
+                }
+                super.visitBinaryExpression(expr);
+            }
+        });
+        return found.get();
+    }
+
+    /**
+     * Comparison of indexed bin with floating point value is executed as the nearest range of integer values
+     * that contains all matching values; the comparison itself is checked on the client.
+     */
+    private static void setFloatingPointRangeFilter(Expression conjunct, QueryHolder queries) {
+        if (!(conjunct instanceof ComparisonOperator) || !(((ComparisonOperator) conjunct).getLeftExpression() instanceof Column) || !(((ComparisonOperator) conjunct).getRightExpression() instanceof DoubleValue)) {
+            return;
+        }
+        String bin = stripQuotes(((Column)((ComparisonOperator) conjunct).getLeftExpression()).getColumnName());
+        double value = ((DoubleValue)((ComparisonOperator) conjunct).getRightExpression()).getValue();
+        if ("PK".equals(bin) || recordMetadata.containsKey(bin) || Double.isNaN(value)) {
+            return;
+        }
+        // casting to long saturates at Long.MIN_VALUE and Long.MAX_VALUE
+        if (conjunct instanceof GreaterThan || conjunct instanceof GreaterThanEquals) {
+            queries.setRangeFilter(bin, (long)Math.ceil(value), Long.MAX_VALUE);
+        } else if (conjunct instanceof MinorThan || conjunct instanceof MinorThanEquals) {
+            queries.setRangeFilter(bin, Long.MIN_VALUE, (long)Math.floor(value));
+        }
+    }
+
+    private static boolean hasParameters(Expression expr) {
+        AtomicBoolean parameters = new AtomicBoolean(false);
+        expr.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(JdbcParameter parameter) {
+                parameters.set(true);
+            }
+        });
+        return parameters.get();
+    }
+
     private void updateJoinedQuery(QueryHolder queries, QueryHolder currentJoin, String table, String alias) {
         currentJoin.setSetName(table, alias);
         if (alias != null) {
@@ -873,16 +1391,9 @@ public class AerospikeQueryFactory {
     }
 
     private void truncate(IAerospikeClient client, String schema, String tableName, Calendar calendar) throws SQLException {
-        boolean tableExists = false;
-        ResultSet rs = statement.getConnection().getMetaData().getTables(schema, null, tableName, null);
-        while(rs.next()) {
-            String table = rs.getString("TABLE_NAME");
-            if (tableName.equals(table)) {
-                tableExists = true;
-                break;
-            }
-        }
-        if(!tableExists) {
+        // table names are used directly instead of getTables() that wraps them with result set
+        AerospikeDatabaseMetadata md = (AerospikeDatabaseMetadata)statement.getConnection().getMetaData();
+        if (!md.getTableNames(schema).contains(tableName)) {
             SneakyThrower.sneakyThrow(new SQLException(format("Table %s.%s doesn't exist", schema, tableName)));
         }
         client.truncate(policyProvider.getInfoPolicy(), schema, tableName, calendar);
@@ -1,5 +1,6 @@
 package com.nosqldriver.aerospike.sql;
 
+import com.aerospike.client.Value;
 import com.aerospike.client.query.KeyRecord;
 import com.nosqldriver.sql.BaseSchemalessResultSet;
 import com.nosqldriver.sql.DataColumn;
@@ -34,7 +35,9 @@ abstract class AerospikeRecordResultSet extends BaseSchemalessResultSet<KeyRecor
 
     @Override
     protected String getString(KeyRecord record, String label) throws SQLException {
-        return getTypedValue(record, label, String.class);
+        Object value = valueExtractor.getValue(toMap(record), label);
+        // GeoJSON bin is represented by its JSON text
+        return value instanceof Value.GeoJSONValue ? value.toString() : cast(value, String.class);
     }
 
     @Override
@@ -5,6 +5,7 @@ import com.aerospike.client.Info;
 import com.aerospike.client.query.IndexCollectionType;
 import com.aerospike.client.query.IndexType;
 import com.aerospike.client.task.IndexTask;
+import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.aerospike.sql.query.AerospikeInsertQuery;
 import com.nosqldriver.aerospike.sql.query.QueryContainer;
 import com.nosqldriver.aerospike.sql.query.QueryHolder;
@@ -25,6 +26,7 @@ import java.sql.SQLSyntaxErrorException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
@@ -80,6 +82,8 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
                 Function<IAerospikeClient, ResultSet> insert = aqf.createQueryPlan(sql).getQuery(statement);
                 insert.apply(statement.client);
                 statement.set = aqf.getSet();
+                SetSchemaRegistry.of(statement.client).invalidate(statement.set);
+                ClusterInfo.invalidate(statement.client);
                 statement.setUpdateCount(ofNullable(AerospikeInsertQuery.updatedRecordsCount.get()).orElse(0));
 
                 return statement.getUpdateCount();
@@ -101,6 +105,8 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
                 Function<IAerospikeClient, Integer> update = aqf.createUpdate(statement, sql);
                 statement.set = aqf.getSet();
                 int count = update.apply(statement.client);
+                SetSchemaRegistry.of(statement.client).invalidate(statement.set);
+                ClusterInfo.invalidate(statement.client);
                 statement.setUpdateCount(count);
                 return count;
             }
@@ -178,6 +184,7 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
                 } else {
                     task.waitTillComplete();
                 }
+                ClusterInfo.invalidate(statement.client);
                 return 1;
             }
 
@@ -206,6 +213,7 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
                 aqf.createQueryPlan(sql);
                 String indexName = aqf.getIndexes().iterator().next().split("\\.")[2];
                 statement.client.dropIndex(null, aqf.getSchema(), aqf.getSet(), indexName);
+                ClusterInfo.invalidate(statement.client);
                 statement.setUpdateCount(1);
                 return 1;
             }
@@ -255,6 +263,7 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
     private static final String indexTypes = "STRING|NUMERIC|GEO2DSPHERE";
     private static final String indexCollectionType = "DEFAULT|LIST|MAPKEYS|MAPVALUES";
     private static final Pattern createIndexPattern = Pattern.compile(format("^CREATE\\s+(%s)(\\s+(%s))?\\s+INDEX.*", indexTypes, indexCollectionType));
+    private static final Pattern specialIndex = Pattern.compile("\\.(LIST|MAPKEYS|MAPVALUES)\\.\\w+$|\\.GEO2DSPHERE$", Pattern.CASE_INSENSITIVE);
     private static final Pattern fixIndexPattern = Pattern.compile(format("((?:%s)\\s+(?:%s))", indexTypes, indexCollectionType));
 
 
@@ -264,7 +273,16 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
         this.connection = connection;
         this.schema = schema;
         this.policyProvider = policyProvider;
-        indexes = new ConnectionParametersParser().indexesParser(Info.request(client.getNodes()[0], "sindex"), "ns", "set", "bin");
+        String sindexes = Info.request(client.getNodes()[0], "sindex");
+        ConnectionParametersParser parser = new ConnectionParametersParser();
+        // indexes are identified by collection type (e.g. ns.set.bin.LIST) and by type (e.g. ns.set.bin.GEO2DSPHERE);
+        // indexes of plain string and numeric values are identified by bin name as well
+        indexes = new HashSet<>(parser.indexesParser(sindexes, "ns", "set", "bin", "indextype"));
+        indexes.addAll(parser.indexesParser(sindexes, "ns", "set", "bin", "type"));
+        parser.indexesParser(sindexes, "ns", "set", "bin", "indextype", "type").stream()
+                .filter(i -> !specialIndex.matcher(i).find())
+                .map(i -> i.substring(0, i.lastIndexOf('.', i.lastIndexOf('.') - 1)))
+                .forEach(indexes::add);
         this.functionManager = functionManager;
     }
 
@@ -293,6 +311,33 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
         return rs;
     }
 
+    /**
+     * Splits select statement into given number of partitions that can be read independently.
+     * @param sql select statement
+     * @param partitions number of partitions
+     * @return the partitioned query
+     * @throws SQLException if the statement is not select, contains LIMIT, OFFSET, ORDER BY, DISTINCT or aggregation
+     * that would be applied to each partition separately, or number of partitions is not positive
+     */
+    public AerospikePartitionedQuery executePartitioned(String sql, int partitions) throws SQLException {
+        if (partitions < 1) {
+            throw new SQLException(format("Number of partitions must be positive but was %d", partitions));
+        }
+        if (!StatementType.SELECT.equals(getStatementType(sql))) {
+            throw new SQLException(format("Only select statement can be partitioned but was %s", sql));
+        }
+        ((QueryHolder)createQueryFactory().createQueryPlan(sql)).validatePartitioning();
+        return new AerospikePartitionedQuery(this, sql, partitions);
+    }
+
+    @VisibleForPackage
+    ResultSet executePartition(String sql, int partitions, int partition) throws SQLException {
+        QueryHolder holder = (QueryHolder)createQueryFactory().createQueryPlan(sql);
+        holder.setParameters(this, null);
+        holder.setPartition(partitions, partition);
+        return holder.getQuery(this).apply(client);
+    }
+
     @Override
     public int executeUpdate(String sql) throws SQLException {
         int result = 0;
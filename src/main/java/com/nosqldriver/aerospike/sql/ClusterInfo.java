@@ -0,0 +1,163 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Info;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.policy.InfoPolicy;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.util.SneakyThrower;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Snapshot of info responses of all nodes of the cluster. Nodes are requested in parallel.
+ * Responses of commands that do not change while the cluster is running (e.g. namespaces, build, edition) are cached
+ * until the node membership changes; responses of other commands (e.g. sets, sindex-list) are cached for configured time.
+ * The cache is shared by all clients connected to the same cluster. The cluster is identified by names of its nodes,
+ * so the cache does not reference any client and survives the connections.
+ */
+@VisibleForPackage
+class ClusterInfo {
+    // node name -> responses of the cluster the node belongs to
+    private static final ConcurrentMap<String, ConcurrentMap<String, Response<?>>> caches = new ConcurrentHashMap<>();
+    private static final Collection<String> stableCommands = new HashSet<>(Arrays.asList("", "namespaces", "build", "edition"));
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "aerospike-jdbc-info");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final IAerospikeClient client;
+    private final InfoPolicy infoPolicy;
+    private final long ttl;
+
+    private static class Response<T> {
+        private final Set<String> nodes;
+        private final long expiration;
+        private final List<T> values;
+
+        private Response(Set<String> nodes, long expiration, List<T> values) {
+            this.nodes = nodes;
+            this.expiration = expiration;
+            this.values = values;
+        }
+    }
+
+    private ClusterInfo(IAerospikeClient client, InfoPolicy infoPolicy, long ttl) {
+        this.client = client;
+        this.infoPolicy = infoPolicy;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns cluster info of given client. Cached responses are shared with other clients connected to the same cluster.
+     */
+    @VisibleForPackage
+    static ClusterInfo of(IAerospikeClient client, InfoPolicy infoPolicy, long ttl) {
+        return new ClusterInfo(client, infoPolicy, ttl);
+    }
+
+    /**
+     * Returns responses of all nodes to the command.
+     * @param command info command
+     * @return list of non-null responses of nodes
+     */
+    @VisibleForPackage
+    List<String> request(String command) {
+        return request(command, node -> Info.request(infoPolicy, node, command));
+    }
+
+    /**
+     * Returns default info of all nodes merged into one map.
+     */
+    @VisibleForPackage
+    Map<String, String> request() {
+        Map<String, String> result = new HashMap<>();
+        request("", node -> Info.request(infoPolicy, node)).forEach(result::putAll);
+        return result;
+    }
+
+    /**
+     * Invalidates cached responses of cluster info of given client, if any. Should be called when the client modifies sets or indexes.
+     */
+    @VisibleForPackage
+    static void invalidate(IAerospikeClient client) {
+        perCluster(caches, client.getNodes(), ConcurrentHashMap::new).clear();
+    }
+
+    /**
+     * Returns number of nodes of the cluster.
+     */
+    @VisibleForPackage
+    int size() {
+        return client.getNodes().length;
+    }
+
+    /**
+     * Returns value that belongs to the cluster of given nodes; creates it if none of the nodes is known yet.
+     * Nodes that joined the cluster later are attached to the existing value.
+     * @param values map of node name to the value of the node's cluster
+     */
+    @VisibleForPackage
+    static <T> T perCluster(ConcurrentMap<String, T> values, Node[] nodes, Supplier<T> factory) {
+        T value = Arrays.stream(nodes).map(node -> values.get(node.getName())).filter(Objects::nonNull).findFirst().orElseGet(factory);
+        Arrays.stream(nodes).forEach(node -> values.putIfAbsent(node.getName(), value));
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> request(String command, Function<Node, T> requester) {
+        Node[] nodes = client.getNodes();
+        Set<String> nodeNames = Arrays.stream(nodes).map(Node::getName).collect(toSet());
+        ConcurrentMap<String, Response<?>> responses = perCluster(caches, nodes, ConcurrentHashMap::new);
+        long now = System.currentTimeMillis();
+        Response<T> response = (Response<T>)responses.get(command);
+        if (response != null && response.nodes.equals(nodeNames) && response.expiration > now) {
+            return response.values;
+        }
+
+        List<T> values = fetch(nodes, requester);
+        boolean stable = stableCommands.contains(command);
+        if (stable || ttl > 0) {
+            responses.put(command, new Response<>(nodeNames, stable ? Long.MAX_VALUE : now + ttl, values));
+        }
+        return values;
+    }
+
+    private <T> List<T> fetch(Node[] nodes, Function<Node, T> requester) {
+        if (nodes.length == 1) {
+            T value = requester.apply(nodes[0]);
+            return value == null ? Collections.emptyList() : Collections.singletonList(value);
+        }
+        List<CompletableFuture<T>> futures = Arrays.stream(nodes).map(node -> CompletableFuture.supplyAsync(() -> requester.apply(node), executor)).collect(toList());
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SneakyThrower.sneakyThrow(new SQLException(e));
+        } catch (ExecutionException e) {
+            SneakyThrower.sneakyThrow(e.getCause());
+        }
+        return futures.stream().map(CompletableFuture::join).filter(Objects::nonNull).collect(toList());
+    }
+}
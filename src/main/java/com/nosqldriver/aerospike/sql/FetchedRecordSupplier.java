@@ -0,0 +1,25 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.query.KeyRecord;
+import com.nosqldriver.VisibleForPackage;
+
+import java.util.function.Supplier;
+
+/**
+ * Supplies the first record fetched by result set for discovery of its types. The result set is bound after it is created
+ * because the type discoverer is passed to its super constructor.
+ */
+@VisibleForPackage
+class FetchedRecordSupplier implements Supplier<KeyRecord> {
+    private volatile Supplier<KeyRecord> source = () -> null;
+
+    @VisibleForPackage
+    void bind(Supplier<KeyRecord> source) {
+        this.source = source;
+    }
+
+    @Override
+    public KeyRecord get() {
+        return source.get();
+    }
+}
@@ -6,6 +6,7 @@ import com.aerospike.client.Record;
 import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.query.KeyRecord;
 import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.sql.DriverPolicy;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -13,8 +14,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
@@ -35,17 +38,41 @@ public class KeyRecordFetcherFactory {
     }
 
     private final QueryPolicy queryPolicy;
+    private final DriverPolicy driverPolicy;
 
     public KeyRecordFetcherFactory(QueryPolicy queryPolicy) {
+        this(queryPolicy, new DriverPolicy());
+    }
+
+    public KeyRecordFetcherFactory(QueryPolicy queryPolicy, DriverPolicy driverPolicy) {
         this.queryPolicy = queryPolicy;
+        this.driverPolicy = driverPolicy;
     }
 
     public BiFunction<String, String, Iterable<KeyRecord>> createKeyRecordsFetcher(IAerospikeClient client, String catalog, String table) {
         return (s, s2) -> {
-            com.aerospike.client.query.Statement statement = new com.aerospike.client.query.Statement();
-            statement.setNamespace(catalog);
-            statement.setSetName(table);
-            return client.query(queryPolicy, statement);
+            KeyRecord schema = SetSchemaRegistry.of(client).getSchema(client, ClusterInfo.of(client, client.getInfoPolicyDefault(), driverPolicy.clusterInfoTtl), queryPolicy, catalog, table, driverPolicy.schemaSampleSize, driverPolicy.schemaCacheTtl);
+            return schema == null ? Collections.emptyList() : Collections.singletonList(schema);
+        };
+    }
+
+    /**
+     * Creates fetcher that returns record already fetched by the query itself when types of the queried set are discovered.
+     * The sampling query is performed only if the result is empty, other set is requested or sampling is forced by driver policy.
+     */
+    public BiFunction<String, String, Iterable<KeyRecord>> createKeyRecordsFetcher(IAerospikeClient client, String catalog, String table, Supplier<KeyRecord> fetchedRecord) {
+        BiFunction<String, String, Iterable<KeyRecord>> sampler = createKeyRecordsFetcher(client, catalog, table);
+        if (driverPolicy.discoverTypesBySampling) {
+            return sampler;
+        }
+        return (c, t) -> {
+            if (Objects.equals(catalog, c) && Objects.equals(table, t)) {
+                KeyRecord record = fetchedRecord.get();
+                if (record != null) {
+                    return Collections.singletonList(record);
+                }
+            }
+            return sampler.apply(c, t);
         };
     }
 
@@ -0,0 +1,392 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.sql.DriverPolicy;
+import com.nosqldriver.util.SneakyThrower;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Catalog of tables, columns and indexes used by {@link AerospikeDatabaseMetadata}.
+ * Columns of tables are discovered in parallel with bounded concurrency.
+ * If {@link DriverPolicy#catalogRefreshInterval} is positive the catalog is kept in memory, refreshed in background
+ * and optionally persisted as JSON to {@link DriverPolicy#catalogFile}, so it is available immediately after restart.
+ * Only one of the catalogs that share the same file refreshes it; others re-read the file when it is modified.
+ * Otherwise all metadata is retrieved from the cluster on each request.
+ */
+@VisibleForPackage
+class MetadataCatalog implements Closeable {
+    private static final ThreadFactory daemonFactory = r -> {
+        Thread t = new Thread(r, "aerospike-jdbc-catalog");
+        t.setDaemon(true);
+        return t;
+    };
+    // absolute path of catalog file -> catalog that refreshes it
+    private static final Map<String, MetadataCatalog> fileRefreshers = new HashMap<>();
+
+    private final Loader loader;
+    private final long refreshInterval;
+    private final int parallelism;
+    private final File file;
+    private volatile Snapshot snapshot;
+    private final boolean persisted;
+    private volatile long fileTimestamp;
+    private ScheduledExecutorService refresher;
+    private boolean closed = false;
+
+    @VisibleForPackage
+    interface Loader {
+        List<Properties> tables();
+        List<Properties> indexes();
+        List<Column> columns(String catalog, String table);
+    }
+
+    @VisibleForPackage
+    static class Column {
+        @VisibleForPackage final String catalog;
+        @VisibleForPackage final String table;
+        @VisibleForPackage final String name;
+        @VisibleForPackage final int type;
+        @VisibleForPackage final String typeName;
+
+        @VisibleForPackage
+        Column(String catalog, String table, String name, int type, String typeName) {
+            this.catalog = catalog;
+            this.table = table;
+            this.name = name;
+            this.type = type;
+            this.typeName = typeName;
+        }
+    }
+
+    private static class Snapshot {
+        private final List<Properties> tables;
+        private final List<Properties> indexes;
+        private final Map<String, List<Column>> columns;
+
+        private Snapshot(List<Properties> tables, List<Properties> indexes, Map<String, List<Column>> columns) {
+            this.tables = tables;
+            this.indexes = indexes;
+            this.columns = columns;
+        }
+
+        private Snapshot withColumns(Map<String, List<Column>> discovered) {
+            Map<String, List<Column>> all = new HashMap<>(columns);
+            all.putAll(discovered);
+            return new Snapshot(tables, indexes, all);
+        }
+    }
+
+    @VisibleForPackage
+    MetadataCatalog(Loader loader, DriverPolicy policy) {
+        this.loader = loader;
+        refreshInterval = policy.catalogRefreshInterval;
+        parallelism = Math.max(1, policy.catalogDiscoveryParallelism);
+        file = refreshInterval > 0 && policy.catalogFile != null ? new File(policy.catalogFile) : null;
+        snapshot = read();
+        persisted = snapshot != null;
+    }
+
+    @VisibleForPackage
+    List<Properties> getTables() {
+        return isCached() ? current().tables : loader.tables();
+    }
+
+    @VisibleForPackage
+    List<Properties> getIndexes() {
+        return isCached() ? current().indexes : loader.indexes();
+    }
+
+    /**
+     * Returns columns of given tables. Columns of tables that are not known yet are discovered in parallel.
+     * @param tables list of table descriptors that contain properties {@code ns} and {@code set}
+     * @return map of table name in form {@code namespace.set} to list of its columns
+     */
+    @VisibleForPackage
+    Map<String, List<Column>> getColumns(Collection<Properties> tables) {
+        Map<String, List<Column>> known = isCached() ? current().columns : emptyMap();
+        Map<String, Properties> missing = new LinkedHashMap<>();
+        tables.stream().filter(t -> !known.containsKey(name(t))).forEach(t -> missing.putIfAbsent(name(t), t));
+        Map<String, List<Column>> discovered = discover(missing.values());
+        if (isCached() && !discovered.isEmpty()) {
+            synchronized (this) {
+                snapshot = snapshot.withColumns(discovered);
+            }
+        }
+        if (discovered.isEmpty()) {
+            return known;
+        }
+        Map<String, List<Column>> result = new HashMap<>(known);
+        result.putAll(discovered);
+        return result;
+    }
+
+    @VisibleForPackage
+    static String name(Properties table) {
+        return table.getProperty("ns") + "." + table.getProperty("set");
+    }
+
+    private boolean isCached() {
+        return refreshInterval > 0;
+    }
+
+    private Snapshot current() {
+        if (snapshot == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                    write(snapshot);
+                }
+            }
+        }
+        startRefresh();
+        return snapshot;
+    }
+
+    private synchronized void startRefresh() {
+        if (refresher == null && !closed) {
+            if (file != null) {
+                synchronized (fileRefreshers) {
+                    MetadataCatalog owner = fileRefreshers.putIfAbsent(file.getAbsolutePath(), this);
+                    if (owner != null && owner != this) {
+                        reread();
+                        return;
+                    }
+                }
+            }
+            refresher = Executors.newSingleThreadScheduledExecutor(daemonFactory);
+            // catalog read from file may be outdated, so it is refreshed immediately
+            refresher.scheduleWithFixedDelay(this::refresh, persisted ? 0 : refreshInterval, refreshInterval, MILLISECONDS);
+        }
+    }
+
+    private void refresh() {
+        try {
+            Snapshot fresh = load();
+            snapshot = fresh;
+            write(fresh);
+        } catch (Exception e) {
+            // the previous snapshot remains valid; the next refresh will try again.
+            // Loader may throw checked exceptions (e.g. SQLException) sneakily, and any exception that escapes
+            // the task cancels all further refreshes.
+        }
+    }
+
+    private void reread() {
+        if (file.lastModified() != fileTimestamp) {
+            Snapshot fresh = read();
+            if (fresh != null) {
+                snapshot = fresh;
+            }
+        }
+    }
+
+    private Snapshot load() {
+        List<Properties> tables = unmodifiableList(loader.tables());
+        List<Properties> indexes = unmodifiableList(loader.indexes());
+        Map<String, Properties> distinctTables = new LinkedHashMap<>();
+        tables.forEach(t -> distinctTables.putIfAbsent(name(t), t));
+        return new Snapshot(tables, indexes, discover(distinctTables.values()));
+    }
+
+    private Map<String, List<Column>> discover(Collection<Properties> tables) {
+        Map<String, List<Column>> result = new HashMap<>();
+        if (tables.isEmpty()) {
+            return result;
+        }
+        if (tables.size() == 1 || parallelism == 1) {
+            tables.forEach(t -> result.put(name(t), loader.columns(t.getProperty("ns"), t.getProperty("set"))));
+            return result;
+        }
+
+        List<Properties> list = new ArrayList<>(tables);
+        List<Callable<List<Column>>> tasks = list.stream().map(t -> (Callable<List<Column>>)() -> loader.columns(t.getProperty("ns"), t.getProperty("set"))).collect(toList());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()), daemonFactory);
+        try {
+            List<Future<List<Column>>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                result.put(name(list.get(i)), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SneakyThrower.sneakyThrow(new SQLException(e));
+        } catch (ExecutionException e) {
+            SneakyThrower.sneakyThrow(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private Snapshot read() {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        long timestamp = file.lastModified();
+        try (Reader in = Files.newBufferedReader(file.toPath(), UTF_8)) {
+            JSONObject json = (JSONObject)new JSONParser().parse(in);
+            Map<String, List<Column>> columns = new HashMap<>();
+            for (Object e : ((JSONObject)json.get("columns")).entrySet()) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>)e;
+                List<Column> tableColumns = new ArrayList<>();
+                for (Object c : (JSONArray)entry.getValue()) {
+                    JSONObject column = (JSONObject)c;
+                    tableColumns.add(new Column((String)column.get("catalog"), (String)column.get("table"), (String)column.get("name"), ((Number)column.get("type")).intValue(), (String)column.get("typeName")));
+                }
+                columns.put((String)entry.getKey(), tableColumns);
+            }
+            fileTimestamp = timestamp;
+            return new Snapshot(unmodifiableList(properties((JSONArray)json.get("tables"))), unmodifiableList(properties((JSONArray)json.get("indexes"))), columns);
+        } catch (IOException | ParseException | RuntimeException e) {
+            // corrupted or incompatible file; the catalog will be reloaded from the cluster
+            return null;
+        }
+    }
+
+    private static List<Properties> properties(JSONArray array) {
+        List<Properties> list = new ArrayList<>(array.size());
+        for (Object o : array) {
+            Properties props = new Properties();
+            ((JSONObject)o).forEach((key, value) -> props.setProperty((String)key, (String)value));
+            list.add(props);
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONArray json(List<Properties> list) {
+        JSONArray array = new JSONArray();
+        list.forEach(props -> {
+            JSONObject object = new JSONObject();
+            props.stringPropertyNames().forEach(name -> object.put(name, props.getProperty(name)));
+            array.add(object);
+        });
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject json(Snapshot snapshot) {
+        JSONObject columns = new JSONObject();
+        snapshot.columns.forEach((table, tableColumns) -> {
+            JSONArray array = new JSONArray();
+            tableColumns.forEach(c -> {
+                JSONObject column = new JSONObject();
+                column.put("catalog", c.catalog);
+                column.put("table", c.table);
+                column.put("name", c.name);
+                column.put("type", c.type);
+                column.put("typeName", c.typeName);
+                array.add(column);
+            });
+            columns.put(table, array);
+        });
+        JSONObject json = new JSONObject();
+        json.put("tables", json(snapshot.tables));
+        json.put("indexes", json(snapshot.indexes));
+        json.put("columns", columns);
+        return json;
+    }
+
+    private void write(Snapshot snapshot) {
+        if (file == null) {
+            return;
+        }
+        try {
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                return;
+            }
+            File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            try (Writer out = Files.newBufferedWriter(tmp.toPath(), UTF_8)) {
+                json(snapshot).writeJSONString(out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            fileTimestamp = file.lastModified();
+        } catch (IOException e) {
+            // persistence is optimization only; the catalog is still available in memory
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (file != null) {
+            synchronized (fileRefreshers) {
+                fileRefreshers.remove(file.getAbsolutePath(), this);
+            }
+        }
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    /**
+     * Creates loader that retrieves metadata from the cluster.
+     */
+    @VisibleForPackage
+    static Loader loader(ClusterInfo clusterInfo, Connection connection) {
+        return new Loader() {
+            @Override
+            public List<Properties> tables() {
+                return AerospikeDatabaseMetadata.getInfo(clusterInfo, "sets").collect(toList());
+            }
+
+            @Override
+            public List<Properties> indexes() {
+                return AerospikeDatabaseMetadata.getInfo(clusterInfo, "sindex-list:").collect(toList());
+            }
+
+            @Override
+            public List<Column> columns(String catalog, String table) {
+                try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(format("select * from %s.%s limit 1", catalog, table))) {
+                    ResultSetMetaData md = rs.getMetaData();
+                    int n = md.getColumnCount();
+                    List<Column> columns = new ArrayList<>(n);
+                    for (int i = 1; i <= n; i++) {
+                        columns.add(new Column(md.getCatalogName(i), md.getTableName(i), md.getColumnName(i), md.getColumnType(i), md.getColumnTypeName(i)));
+                    }
+                    return columns;
+                } catch (SQLException e) {
+                    return SneakyThrower.sneakyThrow(e);
+                }
+            }
+        };
+    }
+}
@@ -12,18 +12,36 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
 public class ResultSetOverAerospikeRecordSet extends AerospikeRecordResultSet {
-    private final RecordSet rs;
+    private final Iterable<KeyRecord> rs;
+    private final Runnable closer;
     private Iterator<KeyRecord> it;
     private KeyRecord currentRecord;
+    private KeyRecord peekedRecord;
+    private KeyRecord firstRecord;
 
-    public ResultSetOverAerospikeRecordSet(Statement statement, String schema, String table, List<DataColumn> columns, RecordSet rs, BiFunction<String, String, Iterable<KeyRecord>> keyRecordsFetcher, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+    public ResultSetOverAerospikeRecordSet(Statement statement, String schema, String table, List<DataColumn> columns, RecordSet rs, Function<Supplier<KeyRecord>, BiFunction<String, String, Iterable<KeyRecord>>> keyRecordsFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+        this(statement, schema, table, columns, rs, rs::close, keyRecordsFetcherFactory, functionManager, specialFields);
+    }
+
+    /**
+     * Creates result set over records that are retrieved lazily, e.g. by several batch requests.
+     */
+    public ResultSetOverAerospikeRecordSet(Statement statement, String schema, String table, List<DataColumn> columns, Iterable<KeyRecord> records, Runnable closer, Function<Supplier<KeyRecord>, BiFunction<String, String, Iterable<KeyRecord>>> keyRecordsFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+        this(statement, schema, table, columns, records, closer, new FetchedRecordSupplier(), keyRecordsFetcherFactory, functionManager, specialFields);
+    }
+
+    private ResultSetOverAerospikeRecordSet(Statement statement, String schema, String table, List<DataColumn> columns, Iterable<KeyRecord> rs, Runnable closer, FetchedRecordSupplier fetchedRecord, Function<Supplier<KeyRecord>, BiFunction<String, String, Iterable<KeyRecord>>> keyRecordsFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
         super(statement, schema, table, columns,
-                new GenericTypeDiscoverer<>(keyRecordsFetcher, new CompositeKeyRecordExtractor(KeyRecordFetcherFactory.extractors(specialFields)), functionManager, specialFields),
+                new GenericTypeDiscoverer<>(keyRecordsFetcherFactory.apply(fetchedRecord), new CompositeKeyRecordExtractor(KeyRecordFetcherFactory.extractors(specialFields)), functionManager, specialFields),
                 specialFields);
         this.rs = rs;
+        this.closer = closer;
+        fetchedRecord.bind(this::peek);
     }
 
     @Override
@@ -31,11 +49,16 @@ public class ResultSetOverAerospikeRecordSet extends AerospikeRecordResultSet {
         if (isAfterLast()) {
             return false;
         }
-        return it != null && !it.hasNext();
+        return it != null && peekedRecord == null && !it.hasNext();
     }
 
     @Override
     protected boolean moveToNext() {
+        if (peekedRecord != null) {
+            currentRecord = peekedRecord;
+            peekedRecord = null;
+            return true;
+        }
         if (it == null) {
             it = rs.iterator();
         }
@@ -43,15 +66,33 @@ public class ResultSetOverAerospikeRecordSet extends AerospikeRecordResultSet {
 
         if (it.hasNext()) {
             currentRecord = it.next();
+            if (firstRecord == null) {
+                firstRecord = currentRecord;
+            }
             return true;
         }
         return false;
     }
 
+    /**
+     * Returns the first record of the result; reads and buffers it if iteration has not been started yet.
+     * @return the first record or {@code null} if the result is empty
+     */
+    private KeyRecord peek() {
+        if (it == null) {
+            it = rs.iterator();
+            if (it.hasNext()) {
+                peekedRecord = it.next();
+                firstRecord = peekedRecord;
+            }
+        }
+        return firstRecord;
+    }
+
 
     @Override
     public void close() throws SQLException {
-        rs.close();
+        closer.run();
         super.close();
     }
 
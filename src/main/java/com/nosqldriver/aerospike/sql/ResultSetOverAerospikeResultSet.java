@@ -47,9 +47,10 @@ public class ResultSetOverAerospikeResultSet extends BaseSchemalessResultSet<Map
                             boolean shouldDiscoverData = false;
                             for (DataColumn c : columns1) {
                                 String name = c.getName();
-                                if (name.startsWith("count(")) {
+                                String lowerCaseName = name.toLowerCase();
+                                if (name.startsWith("count(") || lowerCaseName.startsWith("approx_count_distinct(")) {
                                     c.withType(Types.BIGINT);
-                                } else if (name.startsWith("avg(") || name.startsWith("sumsqs(")) {
+                                } else if (name.startsWith("avg(") || name.startsWith("sumsqs(") || lowerCaseName.startsWith("approx_percentile(")) {
                                     c.withType(Types.DOUBLE);
                                 } else if (name.contains("(")) {
                                     Matcher m = functionOfField.matcher(name);
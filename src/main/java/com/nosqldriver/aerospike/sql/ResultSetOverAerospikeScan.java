@@ -20,6 +20,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory.emptyKeyRecordExtractor;
 import static com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory.keyRecordDataExtractor;
@@ -31,16 +32,24 @@ import static java.util.Optional.ofNullable;
 public class ResultSetOverAerospikeScan extends BaseSchemalessResultSet<KeyRecord> {
     private final ScanCallback callback;
     private volatile KeyRecord current;
+    private KeyRecord peeked;
+    private KeyRecord first;
+    private boolean started = false;
     private final BlockingQueue<KeyRecord> queue = new ArrayBlockingQueue<>(10);
     private static final KeyRecord barrier = new KeyRecord(new Key("done", "done", "done"), new Record(emptyMap(), 0, 0));
 
-    public ResultSetOverAerospikeScan(IAerospikeClient client, Statement statement, String schema, String table, List<DataColumn> columns, BiFunction<String, String, Iterable<KeyRecord>> keyRecordsFetcher, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+    public ResultSetOverAerospikeScan(IAerospikeClient client, Statement statement, String schema, String table, List<DataColumn> columns, Function<Supplier<KeyRecord>, BiFunction<String, String, Iterable<KeyRecord>>> keyRecordsFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+        this(client, statement, schema, table, columns, new FetchedRecordSupplier(), keyRecordsFetcherFactory, functionManager, specialFields);
+    }
+
+    private ResultSetOverAerospikeScan(IAerospikeClient client, Statement statement, String schema, String table, List<DataColumn> columns, FetchedRecordSupplier fetchedRecord, Function<Supplier<KeyRecord>, BiFunction<String, String, Iterable<KeyRecord>>> keyRecordsFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
         super(statement,
                 schema,
                 table,
                 columns,
-                new GenericTypeDiscoverer<>(keyRecordsFetcher, new CompositeKeyRecordExtractor(KeyRecordFetcherFactory.extractors(specialFields)), functionManager, specialFields),
+                new GenericTypeDiscoverer<>(keyRecordsFetcherFactory.apply(fetchedRecord), new CompositeKeyRecordExtractor(KeyRecordFetcherFactory.extractors(specialFields)), functionManager, specialFields),
                 specialFields);
+        fetchedRecord.bind(this::peek);
         this.callback = (key, record) -> enqueue(new KeyRecord(key, record));
         new Thread(() -> {
             client.scanAll(new ScanPolicy(), schema, table, callback);
@@ -55,9 +64,35 @@ public class ResultSetOverAerospikeScan extends BaseSchemalessResultSet<KeyRecor
 
     @Override
     protected boolean moveToNext() {
-        try {
-            current = queue.take();
+        if (peeked != null) {
+            current = peeked;
+            peeked = null;
             return current != barrier;
+        }
+        current = take();
+        if (!started) {
+            started = true;
+            first = current;
+        }
+        return current != barrier;
+    }
+
+    /**
+     * Returns the first scanned record; takes and buffers it if iteration has not been started yet.
+     * @return the first record or {@code null} if nothing was scanned
+     */
+    private KeyRecord peek() {
+        if (!started) {
+            started = true;
+            peeked = take();
+            first = peeked;
+        }
+        return first == barrier ? null : first;
+    }
+
+    private KeyRecord take() {
+        try {
+            return queue.take();
         } catch (InterruptedException e) {
             throw new IllegalStateException(e);
         }
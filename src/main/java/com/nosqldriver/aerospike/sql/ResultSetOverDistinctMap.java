@@ -11,7 +11,6 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -26,9 +25,6 @@ import static java.lang.Long.parseLong;
 import static java.util.Optional.ofNullable;
 
 public class ResultSetOverDistinctMap extends ResultSetOverAerospikeResultSet {
-    // Important: corresponding constant is defined in groupby.lua
-    private static final String KEY_DELIMITER = "_nsqld_as_d_";
-
     private static final Map<String, Function<String, Object>> parsers = new HashMap<>();
 
     static {
@@ -104,17 +100,8 @@ public class ResultSetOverDistinctMap extends ResultSetOverAerospikeResultSet {
             //TODO: better throw exception here
         }
         Entry<Object, Object> e = entries.get(currentIndex);
-        Object key = e.getKey();
-        Object[] keys = Arrays.stream(key instanceof String ? ((String) key).split(KEY_DELIMITER) : new Object[]{key}).map(this::cast).toArray();
-
         Map<String, Object> record = new HashMap<>();
-        for (int i = 0; i < keys.length; i++) {
-            record.put(columns.get(i).getName(), keys[i]);
-        }
-        if (e.getValue() instanceof Map) { // group by
-            record.putAll(toMap(e.getValue()));
-        }
-
+        record.put(columns.get(0).getName(), cast(e.getKey()));
         return record;
     }
 
@@ -0,0 +1,120 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.client.query.PredExp;
+import com.aerospike.client.query.RecordSet;
+import com.aerospike.client.query.Statement;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.aerospike.sql.query.DigestSample;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of set schemas of one cluster. The schema is discovered by sampling of several records of the set
+ * selected by digest modulo, so that the samples are spread over the whole set rather than taken from the head of a scan.
+ * Bins found in different samples are merged into one synthetic record. The schema is cached for configured time
+ * and is invalidated when the set is modified through the driver. The registry is shared by all clients connected to the same cluster.
+ */
+@VisibleForPackage
+class SetSchemaRegistry {
+    // node name -> registry of the cluster the node belongs to
+    private static final ConcurrentMap<String, SetSchemaRegistry> registries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CachedSchema> schemas = new ConcurrentHashMap<>();
+
+    private static class CachedSchema {
+        private final KeyRecord sample;
+        private final long expiration;
+
+        private CachedSchema(KeyRecord sample, long expiration) {
+            this.sample = sample;
+            this.expiration = expiration;
+        }
+    }
+
+    @VisibleForPackage
+    static SetSchemaRegistry of(IAerospikeClient client) {
+        return ClusterInfo.perCluster(registries, client.getNodes(), SetSchemaRegistry::new);
+    }
+
+    /**
+     * Returns synthetic record that contains all bins found in sampled records of the set.
+     * @param client the client
+     * @param clusterInfo cluster info used to estimate number of records in the set
+     * @param policy query policy used for sampling
+     * @param namespace the namespace
+     * @param set the set
+     * @param sampleSize maximal number of sampled records
+     * @param ttl time to live of cached schema in milliseconds; 0 means that the schema is not cached
+     * @return merged sample or {@code null} if the set is empty
+     */
+    @VisibleForPackage
+    KeyRecord getSchema(IAerospikeClient client, ClusterInfo clusterInfo, QueryPolicy policy, String namespace, String set, int sampleSize, long ttl) {
+        String name = namespace + "." + set;
+        long now = System.currentTimeMillis();
+        CachedSchema cached = schemas.get(name);
+        if (cached != null && cached.expiration > now) {
+            return cached.sample;
+        }
+        KeyRecord sample = sample(client, clusterInfo, policy, namespace, set, sampleSize);
+        if (ttl > 0) {
+            schemas.put(name, new CachedSchema(sample, now + ttl));
+        }
+        return sample;
+    }
+
+    /**
+     * Invalidates cached schemas of the set in all namespaces.
+     * @param set the set name or {@code null} to invalidate all cached schemas
+     */
+    @VisibleForPackage
+    void invalidate(String set) {
+        if (set == null) {
+            schemas.clear();
+        } else {
+            String suffix = "." + set;
+            schemas.keySet().removeIf(name -> name.endsWith(suffix));
+        }
+    }
+
+    private KeyRecord sample(IAerospikeClient client, ClusterInfo clusterInfo, QueryPolicy policy, String namespace, String set, int sampleSize) {
+        Statement statement = new Statement();
+        statement.setNamespace(namespace);
+        statement.setSetName(set);
+        List<PredExp> sample = DigestSample.predExps(set == null ? 1 : DigestSample.moduloOfSize(AerospikeDatabaseMetadata.getRecordsCount(clusterInfo, namespace, set), sampleSize));
+        if (!sample.isEmpty()) {
+            statement.setPredExp(sample.toArray(new PredExp[0]));
+        }
+
+        Key key = null;
+        Map<String, Object> bins = new LinkedHashMap<>();
+        try (RecordSet rs = client.query(policy, statement)) {
+            for (int i = 0; i < sampleSize && rs.next(); i++) {
+                if (key == null) {
+                    key = rs.getKey();
+                }
+                Record record = rs.getRecord();
+                if (record != null && record.bins != null) {
+                    record.bins.forEach((bin, value) -> {
+                        if (value != null) {
+                            bins.merge(bin, value, SetSchemaRegistry::merge);
+                        }
+                    });
+                }
+            }
+        }
+        return key == null ? null : new KeyRecord(key, new Record(bins, 0, 0));
+    }
+
+    // Integer values stored in a bin that also contains floating point values are widened to the floating point type.
+    private static Object merge(Object existing, Object value) {
+        return (existing instanceof Long || existing instanceof Integer) && (value instanceof Double || value instanceof Float) ? value : existing;
+    }
+}
@@ -0,0 +1,130 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.query.KeyRecord;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory;
+import com.nosqldriver.aerospike.sql.ResultSetOverAerospikeRecordSet;
+import com.nosqldriver.aerospike.sql.SpecialField;
+import com.nosqldriver.sql.DataColumn;
+import com.nosqldriver.util.FunctionManager;
+import com.nosqldriver.util.SneakyThrower;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Query by bounded range of integer primary keys. The range is expanded to keys that are retrieved by chunks of batch requests;
+ * the next chunk is requested while records of the current one are being read, so the records are returned in order of the keys.
+ */
+public class AerospikeBatchQueryByPkRange extends AerospikeQuery<long[], BatchPolicy, KeyRecord> {
+    // batch requests block, so they are not sent from the common fork-join pool
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "aerospike-jdbc-batch");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int batchSize;
+
+    @VisibleForPackage
+    AerospikeBatchQueryByPkRange(java.sql.Statement sqlStatement, String schema, String set, List<DataColumn> columns, long from, long to, int batchSize, BatchPolicy policy, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+        super(sqlStatement, schema, set, columns, new long[] {from, to}, policy, keyRecordFetcherFactory, functionManager, specialFields);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @Override
+    public ResultSet apply(IAerospikeClient client) {
+        ChunkIterator records = new ChunkIterator(client);
+        return new ResultSetOverAerospikeRecordSet(statement, schema, set, columns, () -> records, records::close, fetchedRecord -> keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set, fetchedRecord), functionManager, specialFields);
+    }
+
+    private class ChunkIterator implements Iterator<KeyRecord> {
+        private final IAerospikeClient client;
+        private long next = criteria[0];
+        private boolean exhausted = criteria[0] > criteria[1];
+        private CompletableFuture<KeyRecord[]> nextChunk;
+        private Iterator<KeyRecord> current = Collections.emptyIterator();
+        private KeyRecord nextRecord;
+
+        private ChunkIterator(IAerospikeClient client) {
+            this.client = client;
+            nextChunk = requestChunk();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextRecord == null) {
+                if (current.hasNext()) {
+                    KeyRecord kr = current.next();
+                    nextRecord = kr.record != null ? kr : null; // missing keys of the range are skipped
+                    continue;
+                }
+                if (nextChunk == null) {
+                    return false;
+                }
+                KeyRecord[] chunk = join(nextChunk);
+                nextChunk = requestChunk();
+                current = Arrays.asList(chunk).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public KeyRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KeyRecord kr = nextRecord;
+            nextRecord = null;
+            return kr;
+        }
+
+        private void close() {
+            if (nextChunk != null) {
+                nextChunk.cancel(false);
+                nextChunk = null;
+            }
+            current = Collections.emptyIterator();
+        }
+
+        private CompletableFuture<KeyRecord[]> requestChunk() {
+            if (exhausted) {
+                return null;
+            }
+            long from = next;
+            long to = criteria[1];
+            // to - from overflows if the range is wider than half of long values
+            long last = to - from >= 0 && to - from < batchSize ? to : from + batchSize - 1;
+            exhausted = last == to;
+            next = last + 1;
+            Key[] keys = LongStream.rangeClosed(from, last).mapToObj(k -> KeyFactory.createKey(schema, set, k)).toArray(Key[]::new);
+            return CompletableFuture.supplyAsync(() -> zip(keys, client.get(policy, keys)), executor);
+        }
+
+        private KeyRecord[] join(CompletableFuture<KeyRecord[]> chunk) {
+            try {
+                return chunk.join();
+            } catch (CompletionException e) {
+                return SneakyThrower.sneakyThrow(e.getCause());
+            }
+        }
+    }
+
+    private static KeyRecord[] zip(Key[] keys, Record[] records) {
+        return IntStream.range(0, keys.length).mapToObj(i -> new KeyRecord(keys[i], records[i])).toArray(KeyRecord[]::new);
+    }
+}
@@ -0,0 +1,87 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.query.Statement;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory;
+import com.nosqldriver.aerospike.sql.SpecialField;
+import com.nosqldriver.sql.AggregatedValues;
+import com.nosqldriver.sql.DataColumn;
+import com.nosqldriver.sql.FilteredResultSet;
+import com.nosqldriver.sql.ListRecordSet;
+import com.nosqldriver.util.FunctionManager;
+
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.DATA;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Group by query executed by {@code groupby.lua}. Each node returns list of its groups with partial aggregation results;
+ * the partials are merged on the client by {@link AggregatedValues} while they are being received.
+ */
+public class AerospikeGroupByQuery extends AerospikeQuery<Statement, QueryPolicy, List<?>> {
+    // Important: corresponding constant is defined in groupby.lua
+    private static final String NULL = "_nsqld_as_null_";
+    private final Predicate<ResultSet> having;
+    private final long memoryLimit;
+    private final List<DataColumn> partialColumns;
+
+    /**
+     * @param partialColumns group by columns followed by aggregated columns in order of arguments of {@code groupby.lua}
+     */
+    @VisibleForPackage
+    AerospikeGroupByQuery(java.sql.Statement sqlStatement, String schema, List<DataColumn> columns, List<DataColumn> partialColumns, Statement statement, QueryPolicy policy, Predicate<ResultSet> having, long memoryLimit, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+        super(sqlStatement, schema, statement.getSetName(), columns, statement, policy, keyRecordFetcherFactory, functionManager, specialFields);
+        this.having = having;
+        this.memoryLimit = memoryLimit;
+        // the types are set to prevent discovery that would consume the partials
+        this.partialColumns = partialColumns.stream().map(c -> DATA.create(c.getCatalog(), c.getTable(), c.getName(), c.getName()).withType(Types.JAVA_OBJECT)).collect(toList());
+    }
+
+    @Override
+    public ResultSet apply(IAerospikeClient client) {
+        com.aerospike.client.query.ResultSet rs = client.queryAggregate(policy, criteria);
+        ResultSet partials = new ListRecordSet(statement, schema, set, partialColumns, () -> new PartialsIterator(rs));
+        Iterable<List<?>> groups = new AggregatedValues(partials, columns, memoryLimit, true).aggregate();
+        return new FilteredResultSet(new ListRecordSet(statement, schema, set, columns, groups), columns, having, true);
+    }
+
+    private static class PartialsIterator implements Iterator<List<?>> {
+        private final com.aerospike.client.query.ResultSet rs;
+        private Iterator<?> nodeGroups = Collections.emptyIterator();
+
+        private PartialsIterator(com.aerospike.client.query.ResultSet rs) {
+            this.rs = rs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!nodeGroups.hasNext()) {
+                if (!rs.next()) {
+                    rs.close();
+                    return false;
+                }
+                Object nodeResult = rs.getObject();
+                nodeGroups = nodeResult instanceof List ? ((List<?>)nodeResult).iterator() : Collections.emptyIterator();
+            }
+            return true;
+        }
+
+        @Override
+        public List<?> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return ((List<?>)nodeGroups.next()).stream().map(v -> NULL.equals(v) ? null : v).collect(toList());
+        }
+    }
+}
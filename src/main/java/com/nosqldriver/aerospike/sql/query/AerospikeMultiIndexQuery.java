@@ -0,0 +1,98 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.client.query.RecordSet;
+import com.aerospike.client.query.Statement;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory;
+import com.nosqldriver.aerospike.sql.ResultSetOverAerospikeRecordSet;
+import com.nosqldriver.aerospike.sql.SpecialField;
+import com.nosqldriver.sql.DataColumn;
+import com.nosqldriver.util.FunctionManager;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Disjunction of conditions on indexed bin (e.g. {@code a IN (1, 2)} or {@code a=1 OR a BETWEEN 5 AND 7}) executed as
+ * several secondary index queries with the same predicates but different filters. All queries are started at once,
+ * so they run concurrently; their records are merged and records returned by several queries are skipped by digest.
+ */
+public class AerospikeMultiIndexQuery extends AerospikeQuery<Statement, QueryPolicy, KeyRecord> {
+    private final List<Filter> filters;
+
+    @VisibleForPackage
+    AerospikeMultiIndexQuery(java.sql.Statement sqlStatement, String schema, List<DataColumn> columns, Statement statement, List<Filter> filters, QueryPolicy policy, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+        super(sqlStatement, schema, statement.getSetName(), columns, statement, policy, keyRecordFetcherFactory, functionManager, specialFields);
+        this.filters = filters;
+    }
+
+    @Override
+    public ResultSet apply(IAerospikeClient client) {
+        List<RecordSet> recordSets = filters.stream().map(filter -> client.query(policy, statement(filter))).collect(toList());
+        MergingIterator records = new MergingIterator(recordSets);
+        return new ResultSetOverAerospikeRecordSet(statement, schema, set, columns, () -> records, records::close, fetchedRecord -> keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set, fetchedRecord), functionManager, specialFields);
+    }
+
+    private Statement statement(Filter filter) {
+        Statement s = new Statement();
+        s.setNamespace(criteria.getNamespace());
+        s.setSetName(criteria.getSetName());
+        s.setBinNames(criteria.getBinNames());
+        s.setPredExp(criteria.getPredExp());
+        s.setFilter(filter);
+        return s;
+    }
+
+    private static class MergingIterator implements Iterator<KeyRecord> {
+        private final List<RecordSet> recordSets;
+        private final Set<ByteBuffer> digests = new HashSet<>();
+        private int current = 0;
+        private KeyRecord next;
+
+        private MergingIterator(List<RecordSet> recordSets) {
+            this.recordSets = recordSets;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && current < recordSets.size()) {
+                RecordSet rs = recordSets.get(current);
+                if (!rs.next()) {
+                    rs.close();
+                    current++;
+                    continue;
+                }
+                if (digests.add(ByteBuffer.wrap(rs.getKey().digest))) {
+                    next = new KeyRecord(rs.getKey(), rs.getRecord());
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public KeyRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KeyRecord kr = next;
+            next = null;
+            return kr;
+        }
+
+        private void close() {
+            recordSets.forEach(RecordSet::close);
+        }
+    }
+}
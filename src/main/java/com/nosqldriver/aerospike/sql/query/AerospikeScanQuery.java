@@ -23,7 +23,7 @@ public class AerospikeScanQuery extends AerospikeQuery<Predicate<ResultSet>, Sca
     @Override
     public ResultSet apply(IAerospikeClient client) {
         return new FilteredResultSet(
-                new ResultSetOverAerospikeScan(client, statement, schema, set, columns, keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, specialFields),
+                new ResultSetOverAerospikeScan(client, statement, schema, set, columns, fetchedRecord -> keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set, fetchedRecord), functionManager, specialFields),
                 columns,
                 criteria,
                 true);
@@ -135,6 +135,12 @@ public class BinaryOperation {
         GT(">", value -> value < 0) {
             @Override
             public QueryHolder update(QueryHolder queries, BinaryOperation operation) {
+                if (isPkRange(queries, operation)) {
+                    long value = ((Number)operation.values.get(0)).longValue();
+                    // PK > Long.MAX_VALUE matches nothing: empty range
+                    queries.addPkRange(operation.statement, value == Long.MAX_VALUE ? 1 : value + 1, value == Long.MAX_VALUE ? 0 : Long.MAX_VALUE);
+                    return queries;
+                }
                 if (queries.isPkQuerySupported() && !operation.values.isEmpty() &&  "PK".equals(operation.column)) {
                     queries.createScanQuery(operation.statement, createPkPredicate(operation.values.get(0), queries));
                     return queries;
@@ -151,6 +157,10 @@ public class BinaryOperation {
         GE(">=", value -> value <= 0) {
             @Override
             public QueryHolder update(QueryHolder queries, BinaryOperation operation) {
+                if (isPkRange(queries, operation)) {
+                    queries.addPkRange(operation.statement, ((Number)operation.values.get(0)).longValue(), Long.MAX_VALUE);
+                    return queries;
+                }
                 if (queries.isPkQuerySupported() && !operation.values.isEmpty() &&  "PK".equals(operation.column)) {
                     queries.createScanQuery(operation.statement, createPkPredicate(operation.values.get(0), queries));
                     return queries;
@@ -161,6 +171,11 @@ public class BinaryOperation {
         LT("<", value -> value > 0) {
             @Override
             public QueryHolder update(QueryHolder queries, BinaryOperation operation) {
+                if (isPkRange(queries, operation)) {
+                    long value = ((Number)operation.values.get(0)).longValue();
+                    queries.addPkRange(operation.statement, value == Long.MIN_VALUE ? 1 : Long.MIN_VALUE, value == Long.MIN_VALUE ? 0 : value - 1);
+                    return queries;
+                }
                 if (queries.isPkQuerySupported() && !operation.values.isEmpty() &&  "PK".equals(operation.column)) {
                     queries.createScanQuery(operation.statement, createPkPredicate(operation.values.get(0), queries));
                     return queries;
@@ -177,6 +192,10 @@ public class BinaryOperation {
         LE("<=", value -> value >= 0) {
             @Override
             public QueryHolder update(QueryHolder queries, BinaryOperation operation) {
+                if (isPkRange(queries, operation)) {
+                    queries.addPkRange(operation.statement, Long.MIN_VALUE, ((Number)operation.values.get(0)).longValue());
+                    return queries;
+                }
                 if (queries.isPkQuerySupported() && !operation.values.isEmpty() &&  "PK".equals(operation.column)) {
                     queries.createScanQuery(operation.statement, createPkPredicate(operation.values.get(0), queries));
                     return queries;
@@ -187,13 +206,17 @@ public class BinaryOperation {
         BETWEEN("BETWEEN", null) {
             @Override
             public QueryHolder update(QueryHolder queries, BinaryOperation operation) {
+                if (!queries.isDisjunction() && "PK".equals(operation.column) && operation.values.size() == 2 && operation.values.stream().allMatch(v -> v != null && AerospikeQueryFactory.isInt(v))) {
+                    queries.addPkRange(operation.statement, ((Number)operation.values.get(0)).longValue(), ((Number)operation.values.get(1)).longValue());
+                    return queries;
+                }
                 if ("PK".equals(operation.column) || operation.values.stream().anyMatch(v -> v instanceof QueryHolder)) {
                     return queries;
                 }
                 if (operation.values.stream().anyMatch(v -> !AerospikeQueryFactory.isInt(v))) {
                     SneakyThrower.sneakyThrow(new SQLException("BETWEEN can be applied to integer values only"));
                 }
-                queries.setFilter(Filter.range(operation.column, ((Number) operation.values.get(0)).longValue(), ((Number) operation.values.get(1)).longValue()), operation.column);
+                queries.setRangeFilter(operation.column, ((Number) operation.values.get(0)).longValue(), ((Number) operation.values.get(1)).longValue());
                 return queries;
             }
         },
@@ -299,6 +322,13 @@ public class BinaryOperation {
             }
         }
 
+        /**
+         * Comparison of integer primary key with literal value is executed as range of keys.
+         */
+        protected boolean isPkRange(QueryHolder queries, BinaryOperation operation) {
+            return !queries.isDisjunction() && "PK".equals(operation.column) && operation.values.size() == 1 && operation.values.get(0) != null && AerospikeQueryFactory.isInt(operation.values.get(0));
+        }
+
         protected Predicate<ResultSet> createPkPredicate(Object value, QueryHolder queries) {
             return queries.isPkQuerySupported() ? new ComparableEqualityPredicate<>((Comparable<?>)value, eq) : new PrimaryKeyEqualityPredicate(createKey(value, queries), false);
         }
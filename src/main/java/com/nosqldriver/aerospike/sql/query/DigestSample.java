@@ -0,0 +1,51 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.query.PredExp;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uniform sample of set selected by digest of record key: record belongs to the sample if its digest modulo given
+ * number is 0. Digests are distributed evenly, so the sample does not depend on order of records returned by the nodes.
+ */
+public class DigestSample {
+    private DigestSample() {
+        // utility class
+    }
+
+    /**
+     * @param percent required percent of records
+     * @return modulo that selects approximately the required percent of records
+     */
+    public static int moduloOfPercent(double percent) {
+        return percent >= 100 ? 1 : (int)Math.min(Integer.MAX_VALUE, Math.round(100 / percent));
+    }
+
+    /**
+     * @param recordsCount number of records in the set
+     * @param sampleSize required number of records
+     * @return modulo that selects at least the required number of records
+     */
+    public static int moduloOfSize(long recordsCount, long sampleSize) {
+        return (int)Math.max(1, Math.min(Integer.MAX_VALUE, recordsCount / Math.max(sampleSize, 1)));
+    }
+
+    /**
+     * @param modulo the modulo
+     * @return predicates that select records of the sample or empty list if all records are selected
+     */
+    public static List<PredExp> predExps(int modulo) {
+        return predExps(modulo, 0);
+    }
+
+    /**
+     * @param modulo the modulo
+     * @param remainder required remainder of digest divided by modulo
+     * @return predicates that select records with given remainder or empty list if all records are selected
+     */
+    public static List<PredExp> predExps(int modulo, int remainder) {
+        return modulo > 1 ? Arrays.asList(PredExp.recDigestModulo(modulo), PredExp.integerValue(remainder), PredExp.integerEqual()) : Collections.emptyList();
+    }
+}
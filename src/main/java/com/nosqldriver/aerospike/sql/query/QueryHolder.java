@@ -5,6 +5,8 @@ import com.aerospike.client.Key;
 import com.aerospike.client.Value;
 import com.aerospike.client.Value.StringValue;
 import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.IndexType;
 import com.aerospike.client.query.PredExp;
 import com.aerospike.client.query.Statement;
 import com.nosqldriver.VisibleForPackage;
@@ -25,6 +27,7 @@ import com.nosqldriver.sql.ListRecordSet;
 import com.nosqldriver.sql.NameCheckResultSetWrapper;
 import com.nosqldriver.sql.OffsetLimit;
 import com.nosqldriver.sql.OrderItem;
+import com.nosqldriver.sql.PipelineResultSet;
 import com.nosqldriver.sql.ResultSetDistinctFilter;
 import com.nosqldriver.sql.ResultSetHashExtractor;
 import com.nosqldriver.sql.ResultSetRowFilter;
@@ -43,6 +46,7 @@ import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 
 import java.lang.reflect.Array;
+import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -51,7 +55,9 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
@@ -91,6 +97,10 @@ import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 
 public class QueryHolder implements QueryContainer<ResultSet> {
+    // anchored, so that functions which names end with "distinct" (e.g. approx_count_distinct) are not taken for distinct
+    private static final Pattern DISTINCT = Pattern.compile("^distinct\\((\\w+)\\)");
+    private static final Pattern FUNCTION_CALL = Pattern.compile("\\w+\\((.*)\\)");
+    private static final Pattern APPROXIMATE_FUNCTION_CALL = Pattern.compile("^approx_\\w+\\(", Pattern.CASE_INSENSITIVE);
     private String schema;
     private final Collection<String> indexes;
     private final AerospikePolicyProvider policyProvider;
@@ -102,16 +112,25 @@ public class QueryHolder implements QueryContainer<ResultSet> {
     private List<List<Object>> data = new ArrayList<>();
     private boolean skipDuplicates = false;
     private String whereExpression = null;
+    private final Collection<String> filterColumns = new LinkedHashSet<>(); // referenced by where expression evaluated on the client
 
     private final Statement statement;
     private AerospikeBatchQueryBySecondaryIndex secondayIndexQuery = null;
     private AerospikeQueryByPk pkQuery = null;
     private AerospikeBatchQueryByPk pkBatchQuery = null;
     private AerospikeScanQuery scanQuery = null;
+    private long[] pkRange = null;
+    private java.sql.Statement pkRangeStatement = null;
     private Filter filter;
+    private final List<IndexCandidate> indexCandidates = new ArrayList<>();
+    private int disjunctionDepth = 0;
     private List<PredExp> predExps = new ArrayList<>();
     private long offset = -1;
     private long limit = -1;
+    private double samplePercent = 100;
+    private long sampleSize = -1;
+    private int partitions = 1;
+    private int partition = 0;
 
     private List<OrderItem> ordering = new ArrayList<>();
     private Collection<QueryHolder> subQeueries = new ArrayList<>();
@@ -134,7 +153,7 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         this.schema = schema;
         this.indexes = indexes;
         this.policyProvider = policyProvider;
-        keyRecordFetcherFactory = new KeyRecordFetcherFactory(policyProvider.getQueryPolicy());
+        keyRecordFetcherFactory = new KeyRecordFetcherFactory(policyProvider.getQueryPolicy(), policyProvider.getDriverPolicy());
         this.functionManager = functionManager;
         expressionResultSetWrappingFactory = new ExpressionAwareResultSetFactory(functionManager, policyProvider.getDriverPolicy());
         statement = new Statement();
@@ -149,10 +168,20 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         if (show != null) {
             return show(sqlStatement);
         }
+        if (partition > 0 && (!subQeueries.isEmpty() || pkRange != null || pkQuery != null || pkBatchQuery != null || scanQuery != null)) {
+            return client -> new ListRecordSet(sqlStatement, schema, set, columns, Collections.emptyList());
+        }
         if (!subQeueries.isEmpty()) {
             return getQueryWithSubQueries(sqlStatement);
         }
+        if (isSampled() && (pkRange != null || pkQuery != null || pkBatchQuery != null || scanQuery != null)) {
+            SneakyThrower.sneakyThrow(new SQLException("Sampling is not supported by query by primary key"));
+        }
 
+        if (pkRange != null) {
+            assertNull(pkQuery, pkBatchQuery, secondayIndexQuery);
+            return wrap(sqlStatement, createPkRangeQuery());
+        }
         if (pkQuery != null) {
             assertNull(pkBatchQuery, secondayIndexQuery, scanQuery);
             return wrap(sqlStatement, pkQuery);
@@ -436,7 +465,51 @@ public class QueryHolder implements QueryContainer<ResultSet> {
     }
 
     private Function<IAerospikeClient, ResultSet>  createSecondaryIndexQuery(java.sql.Statement sqlStatement) {
-        return createSecondaryIndexQuery(sqlStatement, filter, predExps);
+        List<PredExp> predExps = sampledPredExps(sqlStatement);
+        IndexCandidate selected = selectIndex(sqlStatement);
+        if (selected == null || selected.filters.size() == 1) {
+            return createSecondaryIndexQuery(sqlStatement, selected == null ? null : selected.filters.get(0), predExps);
+        }
+        // results of aggregation cannot be merged from several queries, so the disjunction is checked by predicates only
+        if (columns.stream().anyMatch(c -> GROUP.equals(c.getRole()) || AGGREGATED.equals(c.getRole()))) {
+            return createSecondaryIndexQuery(sqlStatement, filter, predExps);
+        }
+        if (predExps.size() >= 3) {
+            statement.setPredExp(predExps.toArray(new PredExp[0]));
+        }
+        return new AerospikeMultiIndexQuery(sqlStatement, schema, columns, statement, selected.filters, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
+    }
+
+    // Only one index can be used by query, so the most selective one is chosen according to the index statistics.
+    // Conditions on other indexed bins are checked by predicates that are created for all conditions anyway.
+    private IndexCandidate selectIndex(java.sql.Statement sqlStatement) {
+        IndexCandidate last = indexCandidates.isEmpty() ? null : indexCandidates.get(indexCandidates.size() - 1);
+        IndexCandidate defaultCandidate = filter != null ? new IndexCandidate(null, singletonList(filter), 1, null) : last;
+        if (indexCandidates.size() < 2 || sqlStatement == null) {
+            return defaultCandidate;
+        }
+        try {
+            DatabaseMetaData md = sqlStatement.getConnection().getMetaData();
+            if (!(md instanceof AerospikeDatabaseMetadata)) {
+                return defaultCandidate;
+            }
+            IndexCandidate selected = defaultCandidate;
+            double minEntries = Double.MAX_VALUE;
+            for (IndexCandidate candidate : indexCandidates) {
+                Optional<Double> entries = ((AerospikeDatabaseMetadata)md).estimateIndexEntries(schema, set, candidate.bin, candidate.values);
+                if (!entries.isPresent()) {
+                    return defaultCandidate;
+                }
+                if (entries.get() < minEntries) {
+                    minEntries = entries.get();
+                    selected = candidate;
+                }
+            }
+            return selected;
+        } catch (Exception e) {
+            // statistics are not available; the last filter is used as before
+            return defaultCandidate;
+        }
     }
 
 
@@ -456,23 +529,37 @@ public class QueryHolder implements QueryContainer<ResultSet> {
             statement.setBinNames();
         }
 
-        List<String> groupColumnNames = columns.stream().filter(c-> GROUP.equals(c.getRole())).map(c -> "groupby:" + c.getName()).collect(Collectors.toList());
-        if (!groupColumnNames.isEmpty()) {
-            Value[] args = Stream.concat(
-                    groupColumnNames.stream(),
-                    columns.stream().filter(c -> AGGREGATED.equals(c.getRole())).map(DataColumn::getName).filter(expr -> expr.contains("(")).map(expr -> expr.replace('(', ':').replace(")", "")))
+        List<DataColumn> groupColumns = distinctByName(columns.stream().filter(c-> GROUP.equals(c.getRole())));
+        if (!groupColumns.isEmpty()) {
+            List<DataColumn> aggregatedColumns = distinctByName(columns.stream().filter(c -> AGGREGATED.equals(c.getRole())).filter(c -> c.getName().contains("(")));
+            Predicate<ResultSet> havingFilter = having == null ? rs -> true : new ResultSetRowFilter(having, functionManager, policyProvider.getDriverPolicy());
+            long memoryLimit = policyProvider.getDriverPolicy().aggregationMemoryLimit;
+            // approximate functions are not calculated by groupby.lua, so the raw values are aggregated on the client
+            if (aggregatedColumns.stream().map(DataColumn::getName).anyMatch(name -> APPROXIMATE_FUNCTION_CALL.matcher(name).find())) {
+                String[] bins = Stream.concat(groupColumns.stream().map(DataColumn::getName), aggregatedColumns.stream().map(DataColumn::getName).map(QueryHolder::aggregatedBin))
+                        .filter(bin -> !"*".equals(bin)).distinct().toArray(String[]::new);
+                statement.setBinNames(bins);
+                List<DataColumn> binColumns = Arrays.stream(bins).map(bin -> DATA.create(schema, set, bin, bin)).collect(toList());
+                Function<IAerospikeClient, ResultSet> records = new AerospikeBatchQueryBySecondaryIndex(sqlStatement, schema, binColumns, statement, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
+                return client -> new FilteredResultSet(new ListRecordSet(sqlStatement, schema, set, columns, new AggregatedValues(records.apply(client), columns, memoryLimit).aggregate()), columns, havingFilter, true);
+            }
+            Value[] args = Stream.of(
+                    groupColumns.stream().map(c -> "groupby:" + c.getName()),
+                    aggregatedColumns.stream().map(DataColumn::getName).map(expr -> expr.replace('(', ':').replace(")", "")),
+                    groupByTopK(groupColumns))
+                    .flatMap(a -> a)
                     .map(StringValue::new).toArray(Value[]::new);
             statement.setAggregateFunction(getClass().getClassLoader(), "groupby.lua", "groupby", "groupby", args);
-            return new AerospikeDistinctQuery(sqlStatement, schema, columns, statement, policyProvider.getQueryPolicy(), having == null ? rs -> true : new ResultSetRowFilter(having, functionManager, policyProvider.getDriverPolicy()), keyRecordFetcherFactory, functionManager, specialFields);
+            List<DataColumn> partialColumns = Stream.concat(groupColumns.stream(), aggregatedColumns.stream()).collect(Collectors.toList());
+            return new AerospikeGroupByQuery(sqlStatement, schema, columns, partialColumns, statement, policyProvider.getQueryPolicy(), havingFilter, memoryLimit, keyRecordFetcherFactory, functionManager, specialFields);
         }
 
         List<DataColumn> aggregationColumns = columns.stream().filter(c-> AGGREGATED.equals(c.getRole())).collect(Collectors.toList());
         int aggregationColumnsCount = aggregationColumns.size();
         if (aggregationColumnsCount > 0) {
-            Pattern functionCall = Pattern.compile("\\w+\\((.*)\\)");
             Value[] fieldsForAggregation = aggregationColumns.stream()
                     .map(DataColumn::getName)
-                    .map(functionCall::matcher)
+                    .map(FUNCTION_CALL::matcher)
                     .filter(Matcher::find)
                     .map(m -> m.group(1))
                     .filter(name -> !"*".equals(name))
@@ -482,7 +569,7 @@ public class QueryHolder implements QueryContainer<ResultSet> {
             if (statement.getBinNames() != null && statement.getBinNames().length > 0) {
                 SneakyThrower.sneakyThrow(new SQLException("Cannot perform aggregation operation with query that contains regular fields"));
             }
-            Pattern p = Pattern.compile("distinct\\((\\w+)\\)");
+            Pattern p = DISTINCT;
             Optional<String> distinctExpression = aggregationColumns.stream().map(DataColumn::getName).filter(s -> p.matcher(s).find()).findAny();
             if (distinctExpression.isPresent()) {
                 if (aggregationColumnsCount > 1) {
@@ -494,11 +581,32 @@ public class QueryHolder implements QueryContainer<ResultSet> {
                     throw new IllegalStateException(); // actually cannot happen
                 }
                 String groupField = m.group(1);
-                statement.setAggregateFunction(getClass().getClassLoader(), "distinct.lua", "distinct", "distinct", new StringValue(groupField));
+                long topK = topK();
+                Optional<OrderItem> order = ordering.stream().findFirst();
+                if (ordering.size() > 1 || order.filter(o -> !o.getName().equals(groupField) && !o.getName().equals(distinctExpression.get())).isPresent()) {
+                    topK = -1;
+                }
+                String direction = order.map(o -> o.getDirection().name().toLowerCase()).orElse("");
+                statement.setAggregateFunction(getClass().getClassLoader(), "distinct.lua", "distinct", "distinct", new StringValue(groupField), Value.get(topK), new StringValue(direction));
                 return new AerospikeDistinctQuery(sqlStatement, schema, columns, statement, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
             }
 
 
+            // approximate aggregate functions are calculated using sketches that are merged by the reducer
+            if (aggregationColumns.stream().map(DataColumn::getName).anyMatch(name -> APPROXIMATE_FUNCTION_CALL.matcher(name).find())) {
+                Value[] expressions = aggregationColumns.stream().map(DataColumn::getName).distinct().map(StringValue::new).toArray(Value[]::new);
+                statement.setAggregateFunction(getClass().getClassLoader(), "stats.lua", "stats", "sketch_stats", expressions);
+                return new AerospikeAggregationQuery(sqlStatement, schema, set, columns, statement, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
+            }
+
+            if (isUnfilteredCount()) {
+                return client -> {
+                    AerospikeDatabaseMetadata md = SneakyThrower.get(() -> (AerospikeDatabaseMetadata)sqlStatement.getConnection().getMetaData());
+                    long count = md.getRecordsCount(schema, set);
+                    return new ListRecordSet(sqlStatement, schema, set, columns, Collections.<List<?>>singletonList(columns.stream().map(c -> count).collect(toList())));
+                };
+            }
+
             statement.setAggregateFunction(getClass().getClassLoader(), "stats.lua", "stats", "single_bin_stats", fieldsForAggregation);
             return new AerospikeAggregationQuery(sqlStatement, schema, set, columns, statement, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
         }
@@ -507,6 +615,51 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         return secondayIndexQuery = new AerospikeBatchQueryBySecondaryIndex(sqlStatement, schema, columns, statement, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
     }
 
+    /**
+     * Number of rows that is enough to take from each node to satisfy OFFSET/LIMIT, or -1 if the rows cannot be limited
+     * by the node because they are filtered on the client.
+     */
+    private long topK() {
+        return limit >= 0 && whereExpression == null && having == null && joins.isEmpty() ? max(offset, 0) + limit : -1;
+    }
+
+    /**
+     * Creates arguments of {@code groupby.lua} that make each node to return only its first groups according to ORDER BY/LIMIT.
+     * This is possible only if the groups are ordered by the group by columns: the order of the group keys is the same
+     * on all nodes, so each group of the final result is returned by every node that contains it with complete partial values.
+     * Group by columns missing in ORDER BY are appended to it, so the order is total and the same on the nodes and the client.
+     */
+    private Stream<String> groupByTopK(List<DataColumn> groupColumns) {
+        long topK = topK();
+        Set<String> groupNames = groupColumns.stream().map(DataColumn::getName).collect(Collectors.toSet());
+        if (topK < 0 || !ordering.stream().map(OrderItem::getName).allMatch(groupNames::contains)) {
+            return Stream.empty();
+        }
+        Set<String> ordered = ordering.stream().map(OrderItem::getName).collect(Collectors.toSet());
+        groupColumns.stream().map(DataColumn::getName).filter(name -> !ordered.contains(name)).map(OrderItem::new).forEach(ordering::add);
+        return Stream.concat(
+                ordering.stream().map(o -> "orderby:" + o.getName() + ":" + o.getDirection().name().toLowerCase()),
+                Stream.of("limit:" + topK));
+    }
+
+    // the first argument of aggregate function, e.g. x for approx_percentile(x, 0.5)
+    private static String aggregatedBin(String functionCall) {
+        Matcher m = FUNCTION_CALL.matcher(functionCall);
+        return m.find() ? m.group(1).split(",")[0].trim() : functionCall;
+    }
+
+    private static List<DataColumn> distinctByName(Stream<DataColumn> columns) {
+        Map<String, DataColumn> distinct = new LinkedHashMap<>();
+        columns.forEach(c -> distinct.putIfAbsent(c.getName(), c));
+        return new ArrayList<>(distinct.values());
+    }
+
+    // Unfiltered count(*) is answered from set statistics unless exact count is required by driver policy
+    private boolean isUnfilteredCount() {
+        return !policyProvider.getDriverPolicy().exactCount && set != null && filter == null && predExps.size() < 3 && !isSampled() && partitions == 1 && whereExpression == null && having == null && joins.isEmpty() &&
+                columns.stream().allMatch(c -> AGGREGATED.equals(c.getRole()) && "count(*)".equalsIgnoreCase(c.getName()));
+    }
+
     @VisibleForPackage
     void createPkQuery(java.sql.Statement statement, Key key) {
         pkQuery = new AerospikeQueryByPk(statement, schema, columns, key, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
@@ -525,6 +678,40 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         pkBatchQuery = new AerospikeBatchQueryByPk(statement, schema, set, columns, allKeys, policyProvider.getBatchPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
     }
 
+    /**
+     * Narrows range of integer primary keys requested by the query. The query is created when all conditions are collected.
+     */
+    @VisibleForPackage
+    void addPkRange(java.sql.Statement statement, long from, long to) {
+        pkRangeStatement = statement;
+        pkRange = pkRange == null ? new long[] {from, to} : new long[] {max(pkRange[0], from), min(pkRange[1], to)};
+    }
+
+    /**
+     * Bounded range of primary keys is retrieved by batches of its keys. Unbounded or too wide range is filtered
+     * by scan if the keys are stored with records. Other conditions on primary key (e.g. !=) are applied to the result.
+     */
+    private Function<IAerospikeClient, ResultSet> createPkRangeQuery() {
+        long from = pkRange[0];
+        long to = pkRange[1];
+        boolean bounded = from != Long.MIN_VALUE && to != Long.MAX_VALUE;
+        // to - from overflows if the range is wider than half of long values
+        boolean small = from > to || (to - from >= 0 && to - from < policyProvider.getDriverPolicy().pkRangeMaxKeys);
+        Predicate<ResultSet> otherConditions = scanQuery == null ? rs -> true : scanQuery.criteria;
+        if (bounded && (small || !isPkQuerySupported())) {
+            AerospikeBatchQueryByPkRange query = new AerospikeBatchQueryByPkRange(pkRangeStatement, schema, set, columns, from, to, policyProvider.getDriverPolicy().pkRangeBatchSize, policyProvider.getBatchPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
+            return scanQuery == null ? query : client -> new FilteredResultSet(query.apply(client), columns, otherConditions, true);
+        }
+        if (!isPkQuerySupported()) {
+            SneakyThrower.sneakyThrow(new SQLException("Filtering by PK supports =, !=, IN"));
+        }
+        Predicate<ResultSet> inRange = rs -> {
+            Object pk = SneakyThrower.get(() -> rs.getObject("PK"));
+            return pk instanceof Number && ((Number)pk).longValue() >= from && ((Number)pk).longValue() <= to;
+        };
+        return new AerospikeScanQuery(pkRangeStatement, schema, set, columns, inRange.and(otherConditions), policyProvider.getScanPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
+    }
+
     @VisibleForPackage
     void createScanQuery(java.sql.Statement statement, Predicate<ResultSet> predicate) {
         scanQuery = new AerospikeScanQuery(statement, schema, set, columns, predicate, policyProvider.getScanPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
@@ -557,11 +744,82 @@ public class QueryHolder implements QueryContainer<ResultSet> {
 
 
     public void setFilter(Filter filter, String binName) {
-        if (indexes.contains(join(".", schema, set, binName))) {
+        setFilter(filter, binName, 1);
+    }
+
+    /**
+     * @param values number of distinct values of the bin that match the filter used to estimate its selectivity
+     */
+    public void setFilter(Filter filter, String binName, double values) {
+        if (disjunctionDepth == 0 && indexes.contains(join(".", schema, set, binName))) {
             this.filter = filter;
+            indexCandidates.add(new IndexCandidate(binName, singletonList(filter), values, null));
         }
     }
 
+    /**
+     * Sets filter of collection index; it is used only if index of given collection type exists.
+     */
+    public void setCollectionFilter(Filter filter, String binName, IndexCollectionType type) {
+        if (disjunctionDepth == 0 && indexes.contains(join(".", schema, set, binName, type.name()))) {
+            this.filter = filter;
+            indexCandidates.add(new IndexCandidate(binName, singletonList(filter), 1, null));
+        }
+    }
+
+    /**
+     * Sets filter of geospatial index; it is used only if {@code GEO2DSPHERE} index of given bin exists.
+     */
+    public void setGeoFilter(Filter filter, String binName) {
+        if (disjunctionDepth == 0 && indexes.contains(join(".", schema, set, binName, IndexType.GEO2DSPHERE.name()))) {
+            this.filter = filter;
+            indexCandidates.add(new IndexCandidate(binName, singletonList(filter), 1, null));
+        }
+    }
+
+    /**
+     * Sets range filter on integer bin. Several ranges of the same bin (e.g. {@code a >= 1 AND a < 10}) are merged into
+     * one filter that contains their intersection.
+     */
+    public void setRangeFilter(String binName, long from, long to) {
+        if (disjunctionDepth > 0 || !indexes.contains(join(".", schema, set, binName))) {
+            return;
+        }
+        IndexCandidate previous = indexCandidates.stream().filter(c -> c.range != null && binName.equals(c.bin)).findFirst().orElse(null);
+        long[] range = previous == null ? new long[] {from, to} : new long[] {max(previous.range[0], from), min(previous.range[1], to)};
+        if (previous != null) {
+            indexCandidates.remove(previous);
+        }
+        // empty range is replaced by its lower bound that is rejected by predicates, so the query still uses the index
+        filter = range[0] <= range[1] ? Filter.range(binName, range[0], range[1]) : Filter.equal(binName, range[0]);
+        indexCandidates.add(new IndexCandidate(binName, singletonList(filter), Math.max((double)range[1] - range[0] + 1, 0), range));
+    }
+
+    /**
+     * Sets filters of disjunction of conditions on indexed bin; each filter is executed by separate index query.
+     * @param values total number of distinct values of the bin that match the filters
+     */
+    public void setFilters(List<Filter> filters, String binName, double values) {
+        if (filters.size() > 1 && indexes.contains(join(".", schema, set, binName))) {
+            indexCandidates.add(new IndexCandidate(binName, filters, values, null));
+        }
+    }
+
+    /**
+     * Conditions inside of {@code OR} cannot be used as filter separately, so they are ignored until the end of the disjunction.
+     */
+    public void startDisjunction() {
+        disjunctionDepth++;
+    }
+
+    public void endDisjunction() {
+        disjunctionDepth--;
+    }
+
+    public boolean isDisjunction() {
+        return disjunctionDepth > 0;
+    }
+
     public void setOffset(long offset) {
         this.offset = offset;
     }
@@ -570,13 +828,93 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         this.limit = limit;
     }
 
+    /**
+     * Limits the query to uniform sample of the set, e.g. {@code TABLESAMPLE (1 PERCENT)}.
+     */
+    public void setSamplePercent(double samplePercent) {
+        this.samplePercent = samplePercent;
+    }
+
+    /**
+     * Limits the query to uniform sample of the set that contains given number of records, e.g. {@code SAMPLE(1000)} hint.
+     */
+    public void setSampleSize(long sampleSize) {
+        this.sampleSize = sampleSize;
+        if (limit < 0 || limit > sampleSize) {
+            limit = sampleSize;
+        }
+    }
+
+    /**
+     * Restricts the query to records which digest modulo number of partitions is equal to index of the partition.
+     * Queries by primary key are not split: their records belong to the first partition.
+     */
+    public void setPartition(int partitions, int partition) {
+        this.partitions = partitions;
+        this.partition = partition;
+    }
+
+    /**
+     * Partitions are evaluated independently, so constructs that need all records of the result (OFFSET/LIMIT, ORDER BY,
+     * DISTINCT and aggregations) cannot be used in a partitioned query.
+     * @throws SQLException if the query contains such construct
+     */
+    public void validatePartitioning() throws SQLException {
+        if (offset >= 0 || limit >= 0) {
+            throw new SQLException("Partitioned query cannot contain LIMIT, OFFSET or sample of fixed number of rows");
+        }
+        if (!ordering.isEmpty()) {
+            throw new SQLException("Partitioned query cannot contain ORDER BY");
+        }
+        if (columns.stream().anyMatch(c -> AGGREGATED.equals(c.getRole()) || GROUP.equals(c.getRole()))) {
+            throw new SQLException("Partitioned query cannot contain aggregation, GROUP BY or DISTINCT");
+        }
+    }
+
+    private boolean isSampled() {
+        return samplePercent < 100 || sampleSize >= 0;
+    }
+
+    // Sampling and partitioning predicates are appended to the predicates of the where clause; modulo of sample
+    // of given size is calculated using set statistics.
+    // Sample (digest % s == 0) is split into partitions by one modulo: partition p takes digest % (s * n) == s * p.
+    // Separate predicates would leave partitions empty if s and n were not coprime.
+    private List<PredExp> sampledPredExps(java.sql.Statement sqlStatement) {
+        List<PredExp> sampled = new ArrayList<>(predExps);
+        int modulo = 1;
+        if (isSampled()) {
+            modulo = DigestSample.moduloOfPercent(samplePercent);
+            // without statement (e.g. joined query) set statistics are not available, so only the limit restricts the sample
+            if (sampleSize >= 0 && sqlStatement != null) {
+                AerospikeDatabaseMetadata md = SneakyThrower.get(() -> (AerospikeDatabaseMetadata)sqlStatement.getConnection().getMetaData());
+                modulo = DigestSample.moduloOfSize(md.getRecordsCount(schema, set), sampleSize);
+            }
+        }
+        if ((long)modulo * partitions > Integer.MAX_VALUE) {
+            SneakyThrower.sneakyThrow(new SQLException(format("Sample is too small to be split into %d partitions", partitions)));
+        }
+        addConjunction(sampled, DigestSample.predExps(modulo * partitions, modulo * partition));
+        return sampled;
+    }
+
+    private static void addConjunction(List<PredExp> predExps, List<PredExp> condition) {
+        if (condition.isEmpty()) {
+            return;
+        }
+        boolean empty = predExps.isEmpty();
+        predExps.addAll(condition);
+        if (!empty) {
+            predExps.add(PredExp.and(2));
+        }
+    }
+
     public void setShowTarget(String show) {
         this.show = show;
     }
 
     private Function<IAerospikeClient, ResultSet> wrap(java.sql.Statement sqlStatement, Function<IAerospikeClient, ResultSet> nakedQuery) {
         final Function<IAerospikeClient, ResultSet> expressioned;
-        Pattern p = Pattern.compile("distinct\\((\\w+)\\)");
+        Pattern p = DISTINCT;
         Optional<DataColumn> distinctColumn = columns.stream().filter(c -> c.getName() != null).filter(c -> p.matcher(c.getName()).find()).findAny();
         if (set == null && distinctColumn.isPresent()) {
             if (columns.size() > 1) {
@@ -600,16 +938,32 @@ public class QueryHolder implements QueryContainer<ResultSet> {
                 }
             };
         } else if(set == null && columns.stream().map(DataColumn::getRole).anyMatch(r -> AGGREGATED.equals(r) || GROUP.equals(r))) {
-            expressioned = client -> new FilteredResultSet(new ListRecordSet(sqlStatement, schema, set, columns, new AggregatedValues(nakedQuery.apply(client), columns).read()), columns, having == null ? rs -> true : new ResultSetRowFilter(having, functionManager, policyProvider.getDriverPolicy()), true);
+            expressioned = client -> new FilteredResultSet(new ListRecordSet(sqlStatement, schema, set, columns, new AggregatedValues(nakedQuery.apply(client), columns, policyProvider.getDriverPolicy().aggregationMemoryLimit).aggregate()), columns, having == null ? rs -> true : new ResultSetRowFilter(having, functionManager, policyProvider.getDriverPolicy()), true);
         } else {
             expressioned = client -> expressionResultSetWrappingFactory.wrap(new ResultSetWrapper(nakedQuery.apply(client), columns, indexByName), functionManager, columns, indexByName);
         }
 
-        Function<IAerospikeClient, ResultSet> filtered = whereExpression != null ? client -> new FilteredResultSet(expressioned.apply(client), columns, new ResultSetRowFilter(whereExpression, functionManager, policyProvider.getDriverPolicy()), indexByName) : expressioned;
+        // Join and sort break the pipeline: WHERE must be applied before them, so it is fused with OFFSET/LIMIT
+        // into the final pipeline stage only when neither join nor sort is present.
+        boolean pipelineBreaker = !joins.isEmpty() || !ordering.isEmpty();
+        boolean pipelinedFilter = whereExpression != null && !pipelineBreaker;
+        Function<IAerospikeClient, ResultSet> filtered = whereExpression != null && !pipelinedFilter ? client -> new FilteredResultSet(expressioned.apply(client), columns, new ResultSetRowFilter(whereExpression, filterColumns, functionManager, policyProvider.getDriverPolicy()), indexByName) : expressioned;
         Function<IAerospikeClient, ResultSet> joined = joins.isEmpty() ? filtered : client -> new JoinedResultSet(filtered.apply(client), joins.stream().map(join -> new JoinHolder(new JoinRetriever(sqlStatement, client, join, functionManager), new ResultSetMetadataSupplier(sqlStatement, client, join, functionManager), join.skipIfMissing)).collect(toList()));
         Function<IAerospikeClient, ResultSet> ordered = !ordering.isEmpty() ? client -> new SortedResultSet(joined.apply(client), ordering, min(max(offset, 0) + (limit >=0 ? limit : Integer.MAX_VALUE), Integer.MAX_VALUE), functionManager, policyProvider.getDriverPolicy()) : joined;
-        Function<IAerospikeClient, ResultSet> limited = offset >= 0 || limit >= 0 ? client -> new FilteredResultSet(ordered.apply(client), columns, new OffsetLimit(offset < 0 ? 0 : offset, limit < 0 ? Long.MAX_VALUE : limit), indexByName) : ordered;
-        return client -> new NameCheckResultSetWrapper(limited.apply(client), columns, indexByName);
+        boolean limited = offset >= 0 || limit >= 0;
+        if (!pipelinedFilter && !limited) {
+            return client -> new NameCheckResultSetWrapper(ordered.apply(client), columns, indexByName);
+        }
+        return client -> {
+            List<Predicate<ResultSet>> operators = new ArrayList<>();
+            if (pipelinedFilter) {
+                operators.add(new ResultSetRowFilter(whereExpression, filterColumns, functionManager, policyProvider.getDriverPolicy()));
+            }
+            if (limited) {
+                operators.add(new OffsetLimit(offset < 0 ? 0 : offset, limit < 0 ? Long.MAX_VALUE : limit));
+            }
+            return new PipelineResultSet(ordered.apply(client), columns, operators, indexByName);
+        };
 
     }
 
@@ -906,6 +1260,32 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         this.whereExpression = whereExpression;
     }
 
+    public String getWhereExpression() {
+        return whereExpression;
+    }
+
+    /**
+     * Registers columns referenced by where expression evaluated on the client (e.g. {@code kids_count} or {@code attrs[color]}).
+     * Bins that are not selected are retrieved as hidden columns, so the expression can be evaluated when the query
+     * selects other columns only.
+     */
+    public void addFilterColumns(Collection<String> names) {
+        filterColumns.addAll(names);
+        // all bins are retrieved by select *, while joins, sub queries and aggregations do not read selected bins directly
+        if (columns.isEmpty() || set == null || !joins.isEmpty() || !subQeueries.isEmpty() || columns.stream().anyMatch(c -> AGGREGATED.equals(c.getRole()) || GROUP.equals(c.getRole()))) {
+            return;
+        }
+        names.stream().map(name -> name.replaceFirst("\\[.*", "")).distinct()
+                .filter(bin -> !SpecialField.isSpecialField(bin))
+                .filter(bin -> columns.stream().noneMatch(c -> bin.equals(c.getName()) || bin.equals(c.getLabel())))
+                .forEach(bin -> columns.add(HIDDEN.create(schema, set, bin, null)));
+        statement.setBinNames(getNames());
+    }
+
+    public boolean hasPkRange() {
+        return pkRange != null;
+    }
+
 
     @Override
     public List<DataColumn> getRequestedColumns() {
@@ -950,4 +1330,18 @@ public class QueryHolder implements QueryContainer<ResultSet> {
             });
         }
     }
+
+    private static class IndexCandidate {
+        private final String bin;
+        private final List<Filter> filters;
+        private final double values;
+        private final long[] range;
+
+        private IndexCandidate(String bin, List<Filter> filters, double values, long[] range) {
+            this.bin = bin;
+            this.filters = filters;
+            this.values = values;
+            this.range = range;
+        }
+    }
 }
@@ -0,0 +1,362 @@
+package com.nosqldriver.sql;
+
+import com.nosqldriver.sql.HashAggregator.Accumulator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Accumulators of aggregate functions supported by {@link HashAggregator}. State of all groups is kept in primitive arrays.
+ * Null values are ignored by all functions.
+ */
+class Accumulators {
+    private static final Map<String, Function<Double, Accumulator>> accumulators = new HashMap<>();
+    static {
+        accumulators.put("count", p -> new Count());
+        accumulators.put("sum", p -> new Sum());
+        accumulators.put("sumsqs", p -> new SumOfSquares());
+        accumulators.put("min", p -> new Extremum(Math::min));
+        accumulators.put("max", p -> new Extremum(Math::max));
+        accumulators.put("avg", p -> new Avg());
+        accumulators.put("approx_count_distinct", p -> new ApproxCountDistinct());
+        accumulators.put("approx_percentile", p -> new ApproxPercentile(p == null ? 0.5 : p));
+    }
+
+    private Accumulators() {
+    }
+
+    /**
+     * Returns factory of accumulator of given function.
+     * @param function the function name in lower case
+     * @param parameter optional numeric parameter of the function, e.g. percentile
+     * @return the factory or {@code null} if function is not supported
+     */
+    static Supplier<Accumulator> of(String function, Double parameter) {
+        Function<Double, Accumulator> factory = accumulators.get(function);
+        if (parameter != null && (parameter < 0 || parameter > 1)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1 but was " + parameter);
+        }
+        return factory == null ? null : () -> factory.apply(parameter);
+    }
+
+    /**
+     * Returns factory of accumulator that merges partial results of given function calculated by the cluster nodes.
+     * Partial result of {@code avg} is list of sum and count.
+     * @return the factory or {@code null} if the partial results of the function are not calculated by {@code groupby.lua}
+     */
+    static Supplier<Accumulator> ofPartial(String function, Double parameter) {
+        switch (function) {
+            case "count": case "sumsqs": return Sum::new;
+            case "avg": return PartialAvg::new;
+            case "sum": case "min": case "max": return of(function, parameter);
+            default: return null;
+        }
+    }
+
+    static Object cast(Number result) {
+        @SuppressWarnings("unchecked")
+        Class<Object> minimalType = TypeTransformer.getMinimalType(result, Long.class);
+        return Double.class.equals(minimalType) ? result : TypeTransformer.safeCast(result, minimalType);
+    }
+
+    private static double value(Object value) {
+        return value instanceof Number ? ((Number)value).doubleValue() : TypeTransformer.cast(value, Double.class, 0.0);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static class Count implements Accumulator {
+        private long[] counts = new long[0];
+
+        @Override
+        public void grow(int capacity) {
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (value != null) {
+                counts[group]++;
+            }
+        }
+
+        @Override
+        public Object result(int group) {
+            return counts[group];
+        }
+
+        @Override
+        public int groupSize() {
+            return Long.BYTES;
+        }
+    }
+
+    // Integer values are summed as long while possible, so big numbers do not lose precision.
+    private static class Sum implements Accumulator {
+        private static final byte INTEGRAL = 1;
+        private static final byte FLOATING = 2;
+        private long[] longs = new long[0];
+        private double[] doubles = new double[0];
+        private byte[] states = new byte[0];
+
+        @Override
+        public void grow(int capacity) {
+            longs = Arrays.copyOf(longs, capacity);
+            doubles = Arrays.copyOf(doubles, capacity);
+            states = Arrays.copyOf(states, capacity);
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (value == null) {
+                return;
+            }
+            if (isIntegral(value) && states[group] != FLOATING) {
+                try {
+                    longs[group] = Math.addExact(longs[group], ((Number)value).longValue());
+                    states[group] = INTEGRAL;
+                    return;
+                } catch (ArithmeticException e) {
+                    // overflow: continue in floating point
+                }
+            }
+            doubles[group] += value(value);
+            states[group] = FLOATING;
+        }
+
+        @Override
+        public Object result(int group) {
+            switch (states[group]) {
+                case INTEGRAL: return cast(longs[group]);
+                case FLOATING: return cast(doubles[group] + longs[group]);
+                default: return null;
+            }
+        }
+
+        @Override
+        public int groupSize() {
+            return Long.BYTES + Double.BYTES + 1;
+        }
+    }
+
+    private static class SumOfSquares implements Accumulator {
+        private double[] sums = new double[0];
+        private boolean[] found = new boolean[0];
+
+        @Override
+        public void grow(int capacity) {
+            sums = Arrays.copyOf(sums, capacity);
+            found = Arrays.copyOf(found, capacity);
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (value != null) {
+                double v = value(value);
+                sums[group] += v * v;
+                found[group] = true;
+            }
+        }
+
+        @Override
+        public Object result(int group) {
+            return found[group] ? cast(sums[group]) : null;
+        }
+
+        @Override
+        public int groupSize() {
+            return Double.BYTES + 1;
+        }
+    }
+
+    // Single value of a group is returned as is, so its original type is preserved.
+    private abstract static class SingleValueAware implements Accumulator {
+        protected long[] counts = new long[0];
+        private Object[] first = new Object[0];
+
+        @Override
+        public void grow(int capacity) {
+            counts = Arrays.copyOf(counts, capacity);
+            first = Arrays.copyOf(first, capacity);
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (value == null) {
+                return;
+            }
+            long count = counts[group]++;
+            first[group] = count == 0 ? value : null;
+            accumulate(group, count, value(value));
+        }
+
+        @Override
+        public Object result(int group) {
+            long count = counts[group];
+            return count == 0 ? null : count == 1 ? first[group] : result(group, count);
+        }
+
+        @Override
+        public int groupSize() {
+            return Long.BYTES * 2;
+        }
+
+        protected abstract void accumulate(int group, long count, double value);
+        protected abstract Object result(int group, long count);
+    }
+
+    private static class Extremum extends SingleValueAware {
+        private final DoubleBinaryOperator operator;
+        private double[] values = new double[0];
+
+        private Extremum(DoubleBinaryOperator operator) {
+            this.operator = operator;
+        }
+
+        @Override
+        public void grow(int capacity) {
+            super.grow(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        protected void accumulate(int group, long count, double value) {
+            values[group] = count == 0 ? value : operator.applyAsDouble(values[group], value);
+        }
+
+        @Override
+        protected Object result(int group, long count) {
+            return cast(values[group]);
+        }
+
+        @Override
+        public int groupSize() {
+            return super.groupSize() + Double.BYTES;
+        }
+    }
+
+    private static class Avg extends SingleValueAware {
+        private double[] sums = new double[0];
+
+        @Override
+        public void grow(int capacity) {
+            super.grow(capacity);
+            sums = Arrays.copyOf(sums, capacity);
+        }
+
+        @Override
+        protected void accumulate(int group, long count, double value) {
+            sums[group] += value;
+        }
+
+        @Override
+        protected Object result(int group, long count) {
+            return sums[group] / count;
+        }
+
+        @Override
+        public int groupSize() {
+            return super.groupSize() + Double.BYTES;
+        }
+    }
+
+    private static class PartialAvg implements Accumulator {
+        private double[] sums = new double[0];
+        private long[] counts = new long[0];
+
+        @Override
+        public void grow(int capacity) {
+            sums = Arrays.copyOf(sums, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (value instanceof List && ((List<?>)value).size() == 2) {
+                List<?> sumAndCount = (List<?>)value;
+                sums[group] += value(sumAndCount.get(0));
+                counts[group] += ((Number)sumAndCount.get(1)).longValue();
+            }
+        }
+
+        @Override
+        public Object result(int group) {
+            return counts[group] == 0 ? null : sums[group] / counts[group];
+        }
+
+        @Override
+        public int groupSize() {
+            return Double.BYTES + Long.BYTES;
+        }
+    }
+
+    private static class ApproxCountDistinct implements Accumulator {
+        private HyperLogLog[] sketches = new HyperLogLog[0];
+
+        @Override
+        public void grow(int capacity) {
+            sketches = Arrays.copyOf(sketches, capacity);
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (value != null) {
+                if (sketches[group] == null) {
+                    sketches[group] = new HyperLogLog();
+                }
+                sketches[group].add(value);
+            }
+        }
+
+        @Override
+        public Object result(int group) {
+            return sketches[group] == null ? 0L : sketches[group].result();
+        }
+
+        @Override
+        public int groupSize() {
+            return 1024 + 32;
+        }
+    }
+
+    private static class ApproxPercentile implements Accumulator {
+        private final double percentile;
+        private QuantileDigest[] sketches = new QuantileDigest[0];
+
+        private ApproxPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        @Override
+        public void grow(int capacity) {
+            sketches = Arrays.copyOf(sketches, capacity);
+        }
+
+        @Override
+        public void add(int group, Object value) {
+            if (value != null) {
+                if (sketches[group] == null) {
+                    sketches[group] = new QuantileDigest(percentile);
+                }
+                sketches[group].add(value(value));
+            }
+        }
+
+        @Override
+        public Object result(int group) {
+            return sketches[group] == null ? null : sketches[group].result();
+        }
+
+        @Override
+        public int groupSize() {
+            return 8 * 1024;
+        }
+    }
+}
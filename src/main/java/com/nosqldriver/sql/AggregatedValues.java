@@ -1,89 +1,70 @@
 package com.nosqldriver.sql;
 
 import com.nosqldriver.sql.DataColumn.DataColumnRole;
+import com.nosqldriver.sql.HashAggregator.Accumulator;
+import com.nosqldriver.sql.HashAggregator.Group;
 import com.nosqldriver.util.SneakyThrower;
 
+import java.io.Closeable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static com.nosqldriver.sql.SqlLiterals.sqlTypes;
 import static com.nosqldriver.sql.TypeTransformer.commonType;
 import static com.nosqldriver.sql.TypeTransformer.getMinimalType;
+import static java.lang.String.format;
 
+/**
+ * Client side aggregation used when aggregation cannot be performed by the cluster (e.g. over sub-query or join).
+ * Rows are streamed into {@link HashAggregator} that keeps only accumulators of groups and spills to disk
+ * when the memory limit is exceeded.
+ */
 public class AggregatedValues {
-    private static final BiFunction<Object, Object, Object> count = (one, two) -> cast(Optional.ofNullable(one).map(o -> ((Number)o).longValue()).orElse(0L) + 1);
-
-    private static final BiFunction<Object, Object, Object> sum = (one, two) -> {
-        if (one == null) {
-            return cast((Number)two);
-        }
-        return cast(TypeTransformer.cast(one, Double.class, 0.0) + TypeTransformer.cast(two, Double.class, 0.0));
-    };
-
-    public static class Avg implements BiFunction<Object, Object, Object> {
-        int count = 0;
-        @Override
-        public Object apply(Object one, Object two) {
-            if (one == null) {
-                count++;
-                return two;
-            }
-            double sum = TypeTransformer.cast(one, Double.class, 0.0) * count + TypeTransformer.cast(two, Double.class, 0.0);
-            count++;
-            return sum / count;
-        }
-    }
-
-
-
-    private static final BiFunction<Object, Object, Object> sumsqs = (one, two) -> {
-        double v1 = Optional.ofNullable(one).map(o -> ((Number)o).doubleValue()).orElse(0.0);
-        double v2 = Optional.ofNullable(two).map(t -> ((Number)t).doubleValue()).orElse(0.0);
-        return cast(v1 + v2 * v2);
-    };
-    // sumsqs
-    private static final BiFunction<Object, Object, Object> max = (one, two) -> one == null ? two : cast(Math.max(value(one), value(two)));
-    private static final BiFunction<Object, Object, Object> min = (one, two) -> one == null ? two : cast(Math.min(value(one), value(two)));
-    private static final Map<String, BiFunction<Object, Object, Object>> functions = new HashMap<>();
-    static {
-        functions.put("count", count);
-        functions.put("sum", sum);
-        functions.put("sumsqs", sumsqs);
-        functions.put("min", min);
-        functions.put("max", max);
-    }
-    private static final Map<String, Class<? extends BiFunction<Object, Object, Object>>> functionClasses = new HashMap<>();
-    static {
-        functionClasses.put("avg", Avg.class);
-    }
-
-    private static final Pattern functionPattern = Pattern.compile("^\\s*(\\w+)\\s*\\(\\s*(\\w+|\\*)\\s*\\)");
+    private static final Pattern functionPattern = Pattern.compile("^\\s*(\\w+)\\s*\\(\\s*(\\w+|\\*)\\s*(?:,\\s*([\\d.]+)\\s*)?\\)");
 
     private final ResultSet rs;
     private final List<DataColumn> columns;
-    private Map<List<Object>, List<Object>> aggregatedResults = new HashMap<>();
+    private final long memoryLimit;
 
     private final Map<String, DataColumn> nameToColumn = new HashMap<>();
     private final Map<String, Integer> groupByColumnsIndexes = new LinkedHashMap<>();
     private final Map<String, Integer> aggregatedColumnsIndexes = new LinkedHashMap<>();
+    private final List<String> aggregatedFields = new ArrayList<>();
+    private final List<Supplier<Accumulator>> accumulators = new ArrayList<>();
 
+    public AggregatedValues(ResultSet rs, List<DataColumn> columns) {
+        this(rs, columns, Long.MAX_VALUE);
+    }
 
-    private final List<BiFunction<Object, Object, Object>> aggregationFunctions;
-    private final List<Object> defaultValues; // 0 for count, null for the rest
+    /**
+     * @param rs the source of aggregated rows
+     * @param columns group and aggregated columns
+     * @param memoryLimit estimated number of bytes of aggregation state after which groups are spilled to disk
+     */
+    public AggregatedValues(ResultSet rs, List<DataColumn> columns, long memoryLimit) {
+        this(rs, columns, memoryLimit, false);
+    }
 
-    public AggregatedValues(ResultSet rs, List<DataColumn> columns) {
+    /**
+     * @param rs the source of aggregated rows
+     * @param columns group and aggregated columns
+     * @param memoryLimit estimated number of bytes of aggregation state after which groups are spilled to disk
+     * @param partial if {@code true} the source contains partial results of aggregation (e.g. calculated by the cluster nodes)
+     *                available by the name of aggregated column, otherwise the source contains raw values of aggregated fields
+     */
+    public AggregatedValues(ResultSet rs, List<DataColumn> columns, long memoryLimit, boolean partial) {
         this.rs = rs;
         this.columns = columns;
+        this.memoryLimit = memoryLimit;
 
         int gi = 0;
         int ai = 0;
@@ -92,89 +73,141 @@ public class AggregatedValues {
             nameToColumn.put(c.getName(), c);
             switch (role) {
                 case AGGREGATED:
-                    aggregatedColumnsIndexes.put(c.getName(), ai);
-                    ai++;
+                    if (!aggregatedColumnsIndexes.containsKey(c.getName())) {
+                        aggregatedColumnsIndexes.put(c.getName(), ai);
+                        ai++;
+                    }
                     break;
                 case GROUP:
-                    groupByColumnsIndexes.put(c.getName(), gi);
-                    gi++;
+                    if (!groupByColumnsIndexes.containsKey(c.getName())) {
+                        groupByColumnsIndexes.put(c.getName(), gi);
+                        gi++;
+                    }
                     break;
             }
         }
 
-        aggregationFunctions = aggregatedColumnsIndexes.keySet().stream().map(nameToColumn::get)
-                .map(DataColumn::getName)
-                .map(functionPattern::matcher)
-                .filter(Matcher::find) // TODO: throw exception if pattern is not matched
-                .map(m -> m.group(1))
-                .map(this::getFunction) // TODO: throw exception if function is not found
-                .collect(Collectors.toList());
-
-        defaultValues = aggregationFunctions.stream().map(f -> count == f ? 0 : null).collect(Collectors.toList());
-    }
-
-
-    static Object cast(Number result) {
-        @SuppressWarnings("unchecked")
-        Class<Object> minimalType = TypeTransformer.getMinimalType(result, Long.class);
-        return Double.class.equals(minimalType) ? result : TypeTransformer.safeCast(result, minimalType);
-    }
-
-    private BiFunction<Object, Object, Object> getFunction(String name) {
-        BiFunction<Object, Object, Object> f = functions.get(name);
-        if (f == null) {
-            try {
-                f = functionClasses.get(name).getConstructor().newInstance();
-            } catch (ReflectiveOperationException e) {
-                SneakyThrower.sneakyThrow(new SQLException(e));
+        for (String expr : aggregatedColumnsIndexes.keySet()) {
+            Matcher m = functionPattern.matcher(expr);
+            Supplier<Accumulator> accumulator = null;
+            if (m.find()) {
+                try {
+                    String function = m.group(1).toLowerCase();
+                    Double parameter = m.group(3) == null ? null : Double.parseDouble(m.group(3));
+                    accumulator = partial ? Accumulators.ofPartial(function, parameter) : Accumulators.of(function, parameter);
+                } catch (IllegalArgumentException e) {
+                    SneakyThrower.sneakyThrow(new SQLException(e.getMessage(), e));
+                }
             }
+            if (accumulator == null) {
+                SneakyThrower.sneakyThrow(new SQLException(format("Unsupported aggregation function %s", expr)));
+            }
+            accumulators.add(accumulator);
+            aggregatedFields.add(partial ? expr : m.group(2));
         }
-        return f;
     }
 
-
     public List<List<?>> read() {
-        while (next(rs)) {
-            List<Object> group = groupByColumnsIndexes.keySet().stream().map(name -> getObject(rs, name)).collect(Collectors.toList());
-            List<Object> aggregatedLine = aggregatedColumnsIndexes.keySet().stream().map(name -> getObject(rs, getDataColumnName(name))).collect(Collectors.toList());
-            List<Object> aggregated = aggregate(aggregatedResults.computeIfAbsent(group, objects -> new ArrayList<>(defaultValues)), aggregatedLine);
+        List<List<?>> result = new ArrayList<>();
+        aggregate().forEach(result::add);
+        return result;
+    }
 
-            int i = 0;
+    /**
+     * Consumes all rows of the source and returns aggregated rows. Types of columns are updated according to aggregated
+     * values kept in memory before this method returns; rows of spilled groups are aggregated lazily during iteration.
+     * @return aggregated rows that can be iterated once if the aggregation state was spilled to disk; in this case
+     * the result is {@link Closeable} and should be closed if it is not iterated to the end
+     */
+    public Iterable<List<?>> aggregate() {
+        HashAggregator aggregator = new HashAggregator(accumulators, memoryLimit);
+        Object[] values = new Object[aggregatedFields.size()];
+        List<Object> group = new ArrayList<>(groupByColumnsIndexes.size());
+        while (next(rs)) {
+            group.clear();
             for (String name : groupByColumnsIndexes.keySet()) {
-                updateType(nameToColumn.get(name), group.get(i));
-                i++;
+                group.add(getObject(rs, name));
             }
-
-            i = 0;
-            for (String name : aggregatedColumnsIndexes.keySet()) {
-                updateType(nameToColumn.get(name), aggregated.get(i));
-                i++;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getObject(rs, aggregatedFields.get(i));
             }
+            aggregator.add(HashAggregator.encode(group), values);
+        }
 
-            aggregatedResults.put(group, aggregated);
+        Iterable<Group> groups = aggregator.groups();
+        if (!aggregator.isSpilled()) {
+            List<List<?>> rows = new ArrayList<>(aggregator.size());
+            groups.forEach(g -> rows.add(row(g)));
+            return rows;
         }
 
-        return aggregatedResults.entrySet().stream().map(ga -> {
-            List<Object> row = new ArrayList<>();
-            for (DataColumn c : columns) {
-                DataColumnRole role = c.getRole();
-                String name = c.getName();
-                switch (role) {
-                    case AGGREGATED:
-                        row.add(ga.getValue().get(aggregatedColumnsIndexes.get(name)));
-                        break;
-                    case GROUP:
-                        row.add(ga.getKey().get(groupByColumnsIndexes.get(name)));
-                       break;
-                    default: throw new IllegalStateException("");
+        // groups kept in memory are iterated once to discover types before the rows are requested
+        Iterator<Group> it = groups.iterator();
+        List<List<?>> inMemory = new ArrayList<>(aggregator.size());
+        for (int i = 0; i < aggregator.size(); i++) {
+            inMemory.add(row(it.next()));
+        }
+        return new SpilledRows(aggregator, inMemory, it);
+    }
+
+    /**
+     * Rows of aggregation that was spilled to disk. Closing deletes spill files that were not read yet.
+     */
+    private class SpilledRows implements Iterable<List<?>>, Closeable {
+        private final HashAggregator aggregator;
+        private final List<List<?>> inMemory;
+        private final Iterator<Group> spilled;
+
+        private SpilledRows(HashAggregator aggregator, List<List<?>> inMemory, Iterator<Group> spilled) {
+            this.aggregator = aggregator;
+            this.inMemory = inMemory;
+            this.spilled = spilled;
+        }
+
+        @Override
+        public Iterator<List<?>> iterator() {
+            return new Iterator<List<?>>() {
+                private final Iterator<List<?>> first = inMemory.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return first.hasNext() || spilled.hasNext();
                 }
-            }
 
+                @Override
+                public List<?> next() {
+                    return first.hasNext() ? first.next() : row(spilled.next());
+                }
+            };
+        }
 
-            return row;
-        }).collect(Collectors.toList());
+        @Override
+        public void close() {
+            aggregator.close();
+        }
     }
 
+    private List<?> row(Group group) {
+        List<Object> key = group.getKey();
+        Object[] values = group.getValues();
+        List<Object> row = new ArrayList<>(columns.size());
+        for (DataColumn c : columns) {
+            String name = c.getName();
+            Object value;
+            switch (c.getRole()) {
+                case AGGREGATED:
+                    value = values[aggregatedColumnsIndexes.get(name)];
+                    break;
+                case GROUP:
+                    value = key.get(groupByColumnsIndexes.get(name));
+                    break;
+                default: throw new IllegalStateException(format("Column %s is neither grouped nor aggregated", name));
+            }
+            updateType(c, value);
+            row.add(value);
+        }
+        return row;
+    }
 
     private boolean next(ResultSet rs) {
         try {
@@ -186,11 +219,15 @@ public class AggregatedValues {
     }
 
     private void updateType(DataColumn column, Object value) {
+        if (value == null) {
+            return;
+        }
         Class type = getMinimalType(value, Long.class);
         Class existingType = SqlLiterals.sqlToJavaTypes.get(column.getType());
         Class newType = commonType(type, existingType);
-        column.withType(sqlTypes.get(newType));
+        column.withType(sqlTypes.getOrDefault(newType, column.getType()));
     }
+
     private Object getObject(ResultSet rs, String label) {
         try {
             return "*".equals(label) ? 0 : rs.getObject(label);
@@ -198,26 +235,4 @@ public class AggregatedValues {
             return SneakyThrower.sneakyThrow(e);
         }
     }
-
-    private List<Object> aggregate(List<Object> one, List<Object> two) {
-        int n = aggregationFunctions.size();
-        List<Object> result = new ArrayList<>(n);
-        for (int i = 0; i < n; i++) {
-            Object aggregation = aggregationFunctions.get(i).apply(one.get(i), two.get(i));
-            result.add(aggregation);
-        }
-        return result;
-    }
-
-    private static Double value(Object v) {
-        return Optional.ofNullable(v).map(value -> TypeTransformer.cast(value, Double.class, 0.0)).orElse(0.0);
-    }
-
-    private static String getDataColumnName(String expr) {
-        Matcher m = functionPattern.matcher(expr);
-        if (m.find()) {
-            return m.group(2);
-        }
-        throw new IllegalArgumentException(expr);
-    }
 }
@@ -7,10 +7,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -70,6 +71,7 @@ public class DataColumnBasedResultSetMetaData implements ResultSetMetaData, Simp
     private final String table;
     private final List<DataColumn> columns;
     private boolean discovered;
+    private volatile ResolvedColumns resolved;
 
     public DataColumnBasedResultSetMetaData(List<DataColumn> columns) {
         this(null, null, columns);
@@ -123,24 +125,49 @@ public class DataColumnBasedResultSetMetaData implements ResultSetMetaData, Simp
         return new DataColumnBasedResultSetMetaData(Stream.of(columns, additionalColumns).flatMap(Collection::stream).collect(toList()));
     }
 
-    private Stream<DataColumn> getVisibleColumns() {
-        return columns.stream().filter(c -> !HIDDEN.equals(c.getRole()));
+    /**
+     * Returns 1-based index of visible column with given label or 0 if such column does not exist.
+     * Exact match is preferred; otherwise the label is compared case-insensitively.
+     */
+    public int findColumn(String label) {
+        ResolvedColumns r = resolve();
+        Integer index = r.indexByLabel.get(label);
+        if (index == null && label != null) {
+            index = r.indexByLowerCaseLabel.get(label.toLowerCase());
+        }
+        return index == null ? 0 : index;
     }
 
-    private <T> T getVisibleColumn(int column, Function<DataColumn, T> getter) throws SQLException {
-        if (column <= 0) {
-            throw ExceptionFactory.invalidColumnIndex(column);
+    /**
+     * Checks whether the label refers to visible column or to a hidden sub-column like {@code map[key]}.
+     * Empty metadata does not restrict labels at all.
+     */
+    public boolean isAccessible(String label) {
+        Set<String> accessibleLabels = resolve().accessibleLabels;
+        return accessibleLabels.isEmpty() || accessibleLabels.contains(label);
+    }
+
+    // Column roles and labels are finalized by type discovery before metadata is used, so resolution is done once.
+    private ResolvedColumns resolve() {
+        ResolvedColumns r = resolved;
+        if (r == null) {
+            r = new ResolvedColumns(columns);
+            resolved = r;
         }
-        Optional<DataColumn> opt = getVisibleColumns().skip(column - 1).findFirst();
-        if (!opt.isPresent()) {
+        return r;
+    }
+
+    private <T> T getVisibleColumn(int column, Function<DataColumn, T> getter) throws SQLException {
+        DataColumn[] visibleColumns = resolve().visibleColumns;
+        if (column <= 0 || column > visibleColumns.length) {
             throw ExceptionFactory.invalidColumnIndex(column);
         }
-        return getter.apply(opt.get());
+        return getter.apply(visibleColumns[column - 1]);
     }
 
     @Override
     public int getColumnCount() {
-        return (int)getVisibleColumns().count();
+        return resolve().visibleColumns.length;
     }
 
     @Override
@@ -255,4 +282,27 @@ public class DataColumnBasedResultSetMetaData implements ResultSetMetaData, Simp
     private String toEmpty(String s) {
         return s == null ? "" : s;
     }
+
+    private static class ResolvedColumns {
+        private final DataColumn[] visibleColumns;
+        private final Map<String, Integer> indexByLabel = new HashMap<>();
+        private final Map<String, Integer> indexByLowerCaseLabel = new HashMap<>();
+        private final Set<String> accessibleLabels = new HashSet<>();
+
+        private ResolvedColumns(List<DataColumn> columns) {
+            visibleColumns = columns.stream().filter(c -> !HIDDEN.equals(c.getRole())).toArray(DataColumn[]::new);
+            for (int i = 0; i < visibleColumns.length; i++) {
+                String label = ofNullable(visibleColumns[i].getLabel()).orElseGet(visibleColumns[i]::getName);
+                indexByLabel.putIfAbsent(label, i + 1);
+                if (label != null) {
+                    indexByLowerCaseLabel.putIfAbsent(label.toLowerCase(), i + 1);
+                }
+            }
+            for (DataColumn c : columns) {
+                if (c.getRole() != HIDDEN || (c.getName() != null && c.getName().contains("["))) {
+                    accessibleLabels.add(c.getLabel() != null ? c.getLabel() : c.getName());
+                }
+            }
+        }
+    }
 }
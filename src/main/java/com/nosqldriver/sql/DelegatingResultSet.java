@@ -354,6 +354,13 @@ public interface DelegatingResultSet extends ResultSet {
 
 
     static int findColumn(ResultSetMetaData md, String columnLabel) throws SQLException {
+        if (md instanceof DataColumnBasedResultSetMetaData) {
+            int index = ((DataColumnBasedResultSetMetaData)md).findColumn(columnLabel);
+            if (index > 0) {
+                return index;
+            }
+            throw new SQLException(format("Column %s is not found", columnLabel));
+        }
         int n = md.getColumnCount();
         for (int i = 1; i <= n; i++) {
             if (Objects.equals(columnLabel, md.getColumnLabel(i))) {
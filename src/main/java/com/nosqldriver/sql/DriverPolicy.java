@@ -12,6 +12,54 @@ public class DriverPolicy extends Policy {
     public boolean sendKeyDigest;
     public boolean sendGeneration;
     public boolean sendExpiration;
+    /**
+     * Forces discovery of column types by separate sampling query even if the query itself has already fetched records.
+     */
+    public boolean discoverTypesBySampling;
+    /**
+     * Number of records sampled for discovery of set schema. Bins found in different records are merged.
+     */
+    public int schemaSampleSize = 10;
+    /**
+     * Time in milliseconds the discovered set schema is cached for. 0 means that the schema is not cached.
+     */
+    public long schemaCacheTtl = 0;
+    /**
+     * Interval in milliseconds of background refresh of metadata catalog (tables, columns and indexes).
+     * 0 means that the catalog is not cached and metadata is retrieved from the cluster on each request.
+     */
+    public long catalogRefreshInterval = 0;
+    /**
+     * Maximal number of tables which columns are discovered concurrently.
+     */
+    public int catalogDiscoveryParallelism = 4;
+    /**
+     * File the cached metadata catalog is persisted to, so that it is available immediately after restart.
+     */
+    public String catalogFile;
+    /**
+     * Time in milliseconds info responses that describe sets and indexes are cached for. 0 means that they are not cached.
+     * Responses that do not change while cluster is running (e.g. namespaces) are cached until nodes of cluster are changed.
+     */
+    public long clusterInfoTtl = 0;
+    /**
+     * Forces execution of {@code select count(*)} without where clause over all records instead of using set statistics.
+     */
+    public boolean exactCount;
+    /**
+     * Estimated number of bytes of client side aggregation state (groups and their accumulators) after which
+     * rows of new groups are spilled to temporary files.
+     */
+    public long aggregationMemoryLimit = 64L * 1024 * 1024;
+    /**
+     * Maximal size of bounded range of integer primary keys that is retrieved by batch requests of all keys of the range.
+     * Bigger ranges are filtered by scan if the keys are stored with records.
+     */
+    public long pkRangeMaxKeys = 100_000;
+    /**
+     * Number of keys requested by one batch request when range of primary keys is retrieved.
+     */
+    public int pkRangeBatchSize = 1000;
 
     public Script getScript() {
         return script;
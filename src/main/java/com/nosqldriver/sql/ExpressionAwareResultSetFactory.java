@@ -27,7 +27,14 @@ public class ExpressionAwareResultSetFactory {
         this.driverPolicy = driverPolicy;
     }
 
+    /**
+     * Wraps result set with evaluation of expression columns. Result set without expression columns is returned as is,
+     * so its getters do not pass through one more decorator.
+     */
     public ResultSet wrap(ResultSet rs, FunctionManager functionManager, List<DataColumn> columns, boolean indexByName) {
+        if (columns.stream().noneMatch(c -> DataColumn.DataColumnRole.EXPRESSION.equals(c.getRole()))) {
+            return rs;
+        }
         return new ExpressionAwareResultSet(rs, functionManager, driverPolicy, columns, indexByName);
     }
 
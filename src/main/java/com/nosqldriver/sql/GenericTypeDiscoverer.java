@@ -7,11 +7,14 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -42,6 +45,14 @@ public class GenericTypeDiscoverer<R> implements TypeDiscoverer {
         String name = method.getName().replaceFirst("^get|is", "");
         return name.substring(0, 1).toLowerCase() + name.substring(1);
     };
+    // Getter tree of custom classes is discovered once per class. Only property names and SQL types are stored,
+    // so cached values do not reference the class and do not prevent it from being unloaded.
+    private static final ClassValue<List<PropertyType>> classSchemas = new ClassValue<List<PropertyType>>() {
+        @Override
+        protected List<PropertyType> computeValue(Class<?> type) {
+            return Collections.unmodifiableList(describe(new ArrayList<>(), new String[0], new HashSet<>(), type));
+        }
+    };
     private final int limit;
     private final Collection<SpecialField> specialFields;
 
@@ -73,10 +84,18 @@ public class GenericTypeDiscoverer<R> implements TypeDiscoverer {
             String[] ct = ctd.getKey().split("\\.");
             String catalog = ct[0];
             String table = ct[1];
-            Iterator<R> it =  recordsFetcher.apply(catalog, table).iterator();
+            Iterable<R> records = recordsFetcher.apply(catalog, table);
+            List<R> sample = new ArrayList<>();
+            try {
+                Iterator<R> it = records.iterator();
+                for (int i = 0; it.hasNext() && i < limit; i++) {
+                    sample.add(it.next());
+                }
+            } finally {
+                close(records);
+            }
 
-            for (int i = 0; it.hasNext() && i < limit; i++) {
-                R r = it.next();
+            for (R r : sample) {
                 Map<String, Object> data = toMap.apply(r);
                 if (all) {
                     mainColumns.addAll(data.entrySet().stream()
@@ -115,6 +134,17 @@ public class GenericTypeDiscoverer<R> implements TypeDiscoverer {
         return subColumns.isEmpty() ? mainColumns : concat(mainColumns.stream(), subColumns.stream()).collect(toList());
     }
 
+    // Sampling fetchers typically return query results (e.g. RecordSet) that hold server resources until closed.
+    private void close(Iterable<R> records) {
+        if (records instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable)records).close();
+            } catch (Exception e) {
+                // the records are already read; failure of close does not affect discovered types
+            }
+        }
+    }
+
     private void addSpecialColumn(Map<String, List<DataColumn>> dataColumnsByTable, Map<String, List<DataColumn>> columnsByTable, SpecialField specialField) {
         int nColumns = dataColumnsByTable.size();
         String name = specialField.name();
@@ -125,31 +155,38 @@ public class GenericTypeDiscoverer<R> implements TypeDiscoverer {
     }
 
     private Collection<DataColumn> extractFieldTypes(DataColumn column, Class<?> clazz) {
+        DataColumn.DataColumnRole role = column.getRole();
+        String columnName = DATA.equals(role) ? column.getName() : column.getLabel();
+        if (columnName == null && EXPRESSION.equals(role)) {
+            columnName = column.getExpression();
+        }
         Collection<DataColumn> allColumns = new ArrayList<>();
-        return extractFieldTypes(allColumns, column, clazz);
+        for (PropertyType property : classSchemas.get(clazz)) {
+            String name = columnName;
+            for (String propName : property.path) {
+                name = getClearName(name, propName);
+            }
+            allColumns.add(HIDDEN.create(column.getCatalog(), column.getTable(), name, name).withType(property.sqlType));
+        }
+        return allColumns;
     }
 
-
-    private Collection<DataColumn> extractFieldTypes(Collection<DataColumn> allColumns, DataColumn column, Class<?> clazz) {
+    private static List<PropertyType> describe(List<PropertyType> properties, String[] parentPath, Set<Class<?>> visiting, Class<?> clazz) {
+        visiting.add(clazz);
         Arrays.stream(clazz.getMethods())
                 .filter(getter)
                 .forEach(g -> {
-                    DataColumn.DataColumnRole role = column.getRole();
-                    String columnName = DATA.equals(role) ? column.getName() : column.getLabel();
-                    if (columnName == null && EXPRESSION.equals(role)) {
-                        columnName = column.getExpression();
-                    }
-                    String propName = propertyNameRetriever.apply(g);
-                    String name = getClearName(columnName, propName);
-                    Class subType = g.getReturnType();
+                    String[] path = Arrays.copyOf(parentPath, parentPath.length + 1);
+                    path[parentPath.length] = propertyNameRetriever.apply(g);
+                    Class<?> subType = g.getReturnType();
                     int type = SqlLiterals.sqlTypes.getOrDefault(subType, OTHER);
-                    DataColumn subColumn = HIDDEN.create(column.getCatalog(), column.getTable(), name, name).withType(type);
-                    allColumns.add(subColumn);
-                    if (type == OTHER && !Object.class.equals(g.getDeclaringClass())) {
-                       extractFieldTypes(allColumns, subColumn, subType);
+                    properties.add(new PropertyType(path, type));
+                    if (type == OTHER && !Object.class.equals(g.getDeclaringClass()) && !visiting.contains(subType)) {
+                        describe(properties, path, visiting, subType);
                     }
                 });
-        return allColumns;
+        visiting.remove(clazz);
+        return properties;
     }
 
     private Collection<DataColumn> extractFieldTypes(DataColumn column, Map<String, Object> map) {
@@ -174,6 +211,16 @@ public class GenericTypeDiscoverer<R> implements TypeDiscoverer {
         return allColumns;
     }
 
+    private static class PropertyType {
+        private final String[] path;
+        private final int sqlType;
+
+        private PropertyType(String[] path, int sqlType) {
+            this.path = path;
+            this.sqlType = sqlType;
+        }
+    }
+
     private String getClearName(String columnName, String propName) {
         return "".equals(columnName) ? columnName : columnName.charAt(columnName.length() - 1) == ']' ? columnName.substring(0, columnName.length() - 1) + "." + propName + "]" : format("%s[%s]", columnName, propName);
     }
@@ -0,0 +1,450 @@
+package com.nosqldriver.sql;
+
+import com.nosqldriver.util.SneakyThrower;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Hash aggregation operator. Group keys are encoded into compact binary form and stored in open addressing table;
+ * accumulators of each aggregate function are kept in primitive arrays indexed by group number.
+ * When estimated size of the table exceeds the memory limit, rows of groups that are not in memory yet are spilled
+ * to partition files on disk. The partitions are aggregated one by one after all groups kept in memory are returned.
+ * Each partition file is deleted once it is read; files that were not read yet are deleted by {@link #close()}.
+ */
+class HashAggregator implements Closeable {
+    private static final int PARTITIONS = 16;
+    private static final int MAX_DEPTH = 4;
+    private static final int GROUP_OVERHEAD = 48; // key array header, table slot and hash
+
+    private final List<Supplier<Accumulator>> factories;
+    private final long memoryLimit;
+    private final int depth;
+    private final Accumulator[] accumulators;
+
+    private int[] table = new int[64]; // group number + 1, 0 means empty slot
+    private byte[][] keys = new byte[16][];
+    private int[] hashes = new int[16];
+    private int size = 0;
+    private long memory = 0;
+
+    private File[] partitionFiles;
+    private DataOutputStream[] partitions;
+    private HashAggregator partitionAggregator; // aggregator of the partition that is being iterated
+
+    /**
+     * Accumulates values of one aggregate function for all groups.
+     */
+    interface Accumulator {
+        void grow(int capacity);
+        void add(int group, Object value);
+        Object result(int group);
+        /**
+         * @return estimated number of bytes used by one group
+         */
+        int groupSize();
+    }
+
+    static class Group {
+        private final byte[] key;
+        private final Object[] values;
+
+        private Group(byte[] key, Object[] values) {
+            this.key = key;
+            this.values = values;
+        }
+
+        List<Object> getKey() {
+            return decode(key);
+        }
+
+        Object[] getValues() {
+            return values;
+        }
+    }
+
+    HashAggregator(List<Supplier<Accumulator>> factories, long memoryLimit) {
+        this(factories, memoryLimit, 0);
+    }
+
+    private HashAggregator(List<Supplier<Accumulator>> factories, long memoryLimit, int depth) {
+        this.factories = factories;
+        this.memoryLimit = memoryLimit;
+        this.depth = depth;
+        accumulators = factories.stream().map(Supplier::get).toArray(Accumulator[]::new);
+        for (Accumulator accumulator : accumulators) {
+            accumulator.grow(keys.length);
+        }
+    }
+
+    void add(byte[] key, Object[] values) {
+        int hash = hash(key, depth);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        for (int g = table[slot]; g != 0; g = table[slot]) {
+            if (hashes[g - 1] == hash && Arrays.equals(keys[g - 1], key)) {
+                accumulate(g - 1, values);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (memory > memoryLimit && depth < MAX_DEPTH) {
+            spill(key, values, hash);
+            return;
+        }
+
+        int group = size++;
+        if (group == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            for (Accumulator accumulator : accumulators) {
+                accumulator.grow(capacity);
+            }
+        }
+        keys[group] = key;
+        hashes[group] = hash;
+        table[slot] = group + 1;
+        memory += key.length + GROUP_OVERHEAD;
+        for (Accumulator accumulator : accumulators) {
+            memory += accumulator.groupSize();
+        }
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        accumulate(group, values);
+    }
+
+    /**
+     * Returns aggregated groups. Groups kept in memory are returned first in order of their appearance,
+     * then groups of spilled partitions. The result can be iterated only once if any partition was spilled.
+     */
+    Iterable<Group> groups() {
+        closePartitions();
+        return () -> new Iterator<Group>() {
+            private int group = 0;
+            private int partition = 0;
+            private Iterator<Group> partitionGroups = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                if (group < size || partitionGroups.hasNext()) {
+                    return true;
+                }
+                while (partitionFiles != null && partition < partitionFiles.length) {
+                    if (partitionAggregator != null) {
+                        partitionAggregator.close();
+                    }
+                    partitionAggregator = aggregatePartition(partitionFiles[partition++]);
+                    partitionGroups = partitionAggregator.groups().iterator();
+                    if (partitionGroups.hasNext()) {
+                        return true;
+                    }
+                }
+                close();
+                return false;
+            }
+
+            @Override
+            public Group next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (group < size) {
+                    int g = group++;
+                    return new Group(keys[g], Arrays.stream(accumulators).map(a -> a.result(g)).toArray());
+                }
+                return partitionGroups.next();
+            }
+        };
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isSpilled() {
+        return partitionFiles != null;
+    }
+
+    private void accumulate(int group, Object[] values) {
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i].add(group, values[i]);
+        }
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int g = 0; g < size; g++) {
+            int slot = hashes[g] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = g + 1;
+        }
+    }
+
+    private void spill(byte[] key, Object[] values, int hash) {
+        try {
+            if (partitions == null) {
+                partitionFiles = new File[PARTITIONS];
+                partitions = new DataOutputStream[PARTITIONS];
+                for (int i = 0; i < PARTITIONS; i++) {
+                    // unlike File.createTempFile() the file is readable by owner only on POSIX file systems
+                    partitionFiles[i] = Files.createTempFile("aerospike-jdbc-aggregation", ".tmp").toFile();
+                    partitions[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partitionFiles[i])));
+                }
+            }
+            // upper bits of hash are used because lower bits select the slot of the table
+            DataOutputStream out = partitions[(hash >>> 28) & (PARTITIONS - 1)];
+            out.writeInt(key.length);
+            out.write(key);
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+        } catch (IOException e) {
+            SneakyThrower.sneakyThrow(new SQLException("Cannot spill aggregated data to disk", e));
+        }
+    }
+
+    private void closePartitions() {
+        if (partitions == null) {
+            return;
+        }
+        try {
+            for (DataOutputStream out : partitions) {
+                out.close();
+            }
+        } catch (IOException e) {
+            SneakyThrower.sneakyThrow(new SQLException("Cannot spill aggregated data to disk", e));
+        }
+        partitions = null;
+    }
+
+    /**
+     * Deletes spilled partition files that were not read yet, including files of sub-partitions.
+     */
+    @Override
+    public void close() {
+        if (partitionAggregator != null) {
+            partitionAggregator.close();
+            partitionAggregator = null;
+        }
+        if (partitionFiles == null) {
+            return;
+        }
+        if (partitions != null) {
+            for (DataOutputStream out : partitions) {
+                try {
+                    if (out != null) {
+                        out.close();
+                    }
+                } catch (IOException e) {
+                    // the file is deleted anyway
+                }
+            }
+            partitions = null;
+        }
+        for (File file : partitionFiles) {
+            if (file != null) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    private HashAggregator aggregatePartition(File file) {
+        HashAggregator aggregator = new HashAggregator(factories, memoryLimit, depth + 1);
+        Object[] values = new Object[accumulators.length];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] key = new byte[length];
+                in.readFully(key);
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readValue(in);
+                }
+                aggregator.add(key, values);
+            }
+        } catch (IOException e) {
+            SneakyThrower.sneakyThrow(new SQLException("Cannot read spilled aggregated data", e));
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+        return aggregator;
+    }
+
+    // Different seed is used on each level of partitioning, so groups of one partition are spread over sub-partitions.
+    private static int hash(byte[] key, int seed) {
+        int h = Arrays.hashCode(key) + seed * 0x9e3779b9;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    static byte[] encode(List<?> values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * values.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+        } catch (IOException e) {
+            SneakyThrower.sneakyThrow(new SQLException(e.getMessage(), e));
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Object> decode(byte[] key) {
+        List<Object> values = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(key))) {
+            while (in.available() > 0) {
+                values.add(readValue(in));
+            }
+        } catch (IOException e) {
+            SneakyThrower.sneakyThrow(new SQLException(e));
+        }
+        return values;
+    }
+
+    private static void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+        } else if (value instanceof Long) {
+            out.writeByte(1);
+            out.writeLong((Long)value);
+        } else if (value instanceof Integer) {
+            out.writeByte(2);
+            out.writeInt((Integer)value);
+        } else if (value instanceof Double) {
+            out.writeByte(3);
+            out.writeDouble((Double)value);
+        } else if (value instanceof String) {
+            byte[] bytes = ((String)value).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(4);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Boolean) {
+            out.writeByte(5);
+            out.writeBoolean((Boolean)value);
+        } else if (value instanceof Short) {
+            out.writeByte(6);
+            out.writeShort((Short)value);
+        } else if (value instanceof Byte) {
+            out.writeByte(7);
+            out.writeByte((Byte)value);
+        } else if (value instanceof Float) {
+            out.writeByte(8);
+            out.writeFloat((Float)value);
+        } else if (value instanceof byte[]) {
+            out.writeByte(9);
+            out.writeInt(((byte[])value).length);
+            out.write((byte[])value);
+        } else if (value instanceof List) {
+            out.writeByte(10);
+            out.writeInt(((List<?>)value).size());
+            for (Object element : (List<?>)value) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(11);
+            out.writeInt(((Map<?, ?>)value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Timestamp) {
+            out.writeByte(12);
+            out.writeLong(((Timestamp)value).getTime());
+            out.writeInt(((Timestamp)value).getNanos());
+        } else if (value instanceof Time) {
+            out.writeByte(13);
+            out.writeLong(((Time)value).getTime());
+        } else if (value instanceof Date) {
+            out.writeByte(14);
+            out.writeLong(((Date)value).getTime());
+        } else {
+            throw new IOException("Cannot aggregate value of type " + value.getClass());
+        }
+    }
+
+    private static Object readValue(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case 0: return null;
+            case 1: return in.readLong();
+            case 2: return in.readInt();
+            case 3: return in.readDouble();
+            case 4: return new String(readBytes(in), StandardCharsets.UTF_8);
+            case 5: return in.readBoolean();
+            case 6: return in.readShort();
+            case 7: return in.readByte();
+            case 8: return in.readFloat();
+            case 9: return readBytes(in);
+            case 10:
+                int length = in.readInt();
+                List<Object> list = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            case 11:
+                int entries = in.readInt();
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < entries; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            case 12:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case 13: return new Time(in.readLong());
+            case 14: return new Date(in.readLong());
+            default: throw new IOException("Unknown type of aggregated value " + type);
+        }
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
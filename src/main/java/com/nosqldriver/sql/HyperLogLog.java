@@ -0,0 +1,61 @@
+package com.nosqldriver.sql;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog estimator of number of distinct values. Uses 1024 registers, so the standard error is about 3%.
+ * Server side aggregation ({@code sketch_stats} of {@code stats.lua}) uses its own 32 bit hash, so its registers
+ * are not compatible with these ones and the two are never merged.
+ */
+class HyperLogLog implements Sketch {
+    private static final int P = 10;
+    private static final int M = 1 << P;
+    private final byte[] registers = new byte[M];
+
+    void add(Object value) {
+        long h = hash(value);
+        int index = (int)(h >>> (Long.SIZE - P));
+        byte rank = (byte)(Long.numberOfLeadingZeros((h << P) | (1L << (P - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        for (int i = 0; i < M; i++) {
+            registers[i] = (byte)Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    @Override
+    public Long result() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double estimate = 0.7213 / (1 + 1.079 / M) * M * M / sum;
+        if (estimate <= 2.5 * M && zeros > 0) {
+            estimate = M * Math.log((double)M / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // FNV-1a followed by finalizer of MurmurHash3 that spreads the bits over the whole 64 bit value
+    private static long hash(Object value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : String.valueOf(value).getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
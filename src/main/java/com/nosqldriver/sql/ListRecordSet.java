@@ -1,5 +1,7 @@
 package com.nosqldriver.sql;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Iterator;
@@ -14,12 +16,14 @@ import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toMap;
 
 public class ListRecordSet extends ValueTypedResultSet<List<?>> {
+    private final Iterable<List<?>> data;
     private final Iterator<List<?>> it;
     private final Map<String, Integer> nameToIndex;
     private List<?> currentRecord = null;
 
     public ListRecordSet(Statement statement, String schema, String table, List<DataColumn> columns, Iterable<List<?>> data) {
         super(statement, schema, table, columns, columns1 -> discoverTypes(columns1, data));
+        this.data = data;
         this.it = data.iterator();
         nameToIndex = IntStream.range(0, columns.size()).boxed().collect(toMap(i -> columns.get(i).getName(), i -> i));
     }
@@ -29,6 +33,19 @@ public class ListRecordSet extends ValueTypedResultSet<List<?>> {
         return currentRecord;
     }
 
+    // the data may hold resources, e.g. spilled aggregation
+    @Override
+    public void close() throws SQLException {
+        super.close();
+        if (data instanceof Closeable) {
+            try {
+                ((Closeable)data).close();
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
+        }
+    }
+
     @Override
     public boolean isLast() throws SQLException {
         return !isBeforeFirst() && !it.hasNext();
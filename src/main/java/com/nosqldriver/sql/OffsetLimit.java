@@ -18,4 +18,30 @@ public class OffsetLimit implements Predicate<ResultSet> {
         current++;
         return current > offset && current - offset <= limit;
     }
+
+    public boolean isExhausted() {
+        return current - offset >= limit;
+    }
+
+    public void reset() {
+        current = 0;
+    }
+
+    /**
+     * Sets number of already counted rows.
+     */
+    public void setCurrent(long current) {
+        this.current = current;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return number of the last row of the source that may be accepted
+     */
+    public long getEnd() {
+        return limit > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + limit;
+    }
 }
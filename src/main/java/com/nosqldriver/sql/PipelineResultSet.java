@@ -0,0 +1,239 @@
+package com.nosqldriver.sql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Outermost result set of a query. Each row of the source is pushed through the chain of row operators
+ * (e.g. WHERE filter, OFFSET/LIMIT) in one loop instead of passing every call through a separate decorator
+ * per operator. The operators test the current row of the source in place, so rows are not copied between stages.
+ * Once the limit is reached the source is not read any more.
+ *
+ * The source is the projection of the query (columns mapped by {@link ResultSetWrapper}, expressions evaluated only
+ * if the query has any). Join and sort break the pipeline: they consume their input before returning the first row,
+ * so they are executed as separate stages between the projection and this one; the WHERE filter is applied
+ * before them in this case.
+ *
+ * OFFSET/LIMIT is stateful: it counts every row only once, so rows visited again after moving backwards are checked
+ * by the other operators only, and rewinding (e.g. {@link #first()}) resets it. Moving backwards requires scrollable source.
+ */
+public class PipelineResultSet extends NameCheckResultSetWrapper {
+    private final ResultSet source;
+    private final Predicate<ResultSet>[] operators;
+    private final OffsetLimit limit;
+    private int row = 0; // 0 means that the row number is unknown, e.g. after last() without OFFSET/LIMIT
+    private int accepted = 0; // number of rows accepted (and counted by OFFSET/LIMIT) so far
+    private boolean exhausted = false;
+    private boolean afterLast = false;
+
+    @SuppressWarnings("unchecked")
+    public PipelineResultSet(ResultSet source, List<DataColumn> columns, List<Predicate<ResultSet>> operators, boolean indexByName) {
+        super(source, columns, indexByName);
+        this.source = source;
+        this.operators = operators.toArray(new Predicate[0]);
+        limit = operators.stream().filter(o -> o instanceof OffsetLimit).map(o -> (OffsetLimit)o).findFirst().orElse(null);
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (afterLast) {
+            return false;
+        }
+        if (row < accepted) {
+            while (source.next()) {
+                if (filter()) {
+                    row++;
+                    return true;
+                }
+            }
+        } else {
+            while (!exhausted && source.next()) {
+                if (accept()) {
+                    row++;
+                    accepted++;
+                    return true;
+                }
+            }
+        }
+        row = accepted;
+        afterLast = true;
+        return false;
+    }
+
+    private boolean accept() {
+        for (Predicate<ResultSet> operator : operators) {
+            if (!operator.test(source)) {
+                exhausted = limit != null && limit.isExhausted();
+                return false;
+            }
+        }
+        exhausted = limit != null && limit.isExhausted();
+        return true;
+    }
+
+    // All operators except OFFSET/LIMIT that counts rows, so it is not evaluated again for the same row.
+    private boolean filter() {
+        for (Predicate<ResultSet> operator : operators) {
+            if (operator != limit && !operator.test(source)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        if (afterLast) {
+            return false;
+        }
+        if (exhausted && row == accepted) {
+            return true;
+        }
+        return source.isLast() && filter();
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        return !afterLast && row == 1;
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        return afterLast;
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        source.beforeFirst();
+        reset();
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        while(next());
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        if (!source.first()) {
+            reset();
+            return false;
+        }
+        reset();
+        do {
+            if (accept()) {
+                row = accepted = 1;
+                return true;
+            }
+        } while (!exhausted && source.next());
+        afterLast = true;
+        return false;
+    }
+
+    private void reset() {
+        if (limit != null) {
+            limit.reset();
+        }
+        row = 0;
+        accepted = 0;
+        exhausted = false;
+        afterLast = false;
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        if (limit == null) {
+            // the number of rows skipped by the source is unknown
+            row = accepted = 0;
+            afterLast = false;
+            return source.last() && filter();
+        }
+        if (operators.length == 1) {
+            // OFFSET/LIMIT only: the rows of the source are counted directly
+            if (!source.last() || source.getRow() <= limit.getOffset()) {
+                row = accepted;
+                afterLast = true;
+                return false;
+            }
+            long end = Math.min(source.getRow(), limit.getEnd());
+            if (end < source.getRow() && !source.absolute((int)end)) {
+                return false;
+            }
+            limit.setCurrent(end);
+            exhausted = limit.isExhausted();
+            row = accepted = (int)(end - limit.getOffset());
+            afterLast = false;
+            return true;
+        }
+        while(next());
+        if (accepted == 0) {
+            return false;
+        }
+        if (exhausted) {
+            // reading stopped at the last accepted row
+            row = accepted;
+            afterLast = false;
+            return true;
+        }
+        return previous();
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        return afterLast ? 0 : row;
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        if (row == 0) {
+            beforeFirst();
+            return false;
+        }
+        if (row < 0) {
+            return last() && relative(row + 1);
+        }
+        if (afterLast || row < this.row) {
+            if (!first()) {
+                return false;
+            }
+        }
+        return relative(row - this.row);
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        for (; rows > 0; rows--) {
+            if (!next()) {
+                return false;
+            }
+        }
+        for (; rows < 0; rows++) {
+            if (!previous()) {
+                return false;
+            }
+        }
+        return !afterLast;
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        if (!afterLast && row == 1) {
+            // rows before the first accepted one (e.g. skipped by OFFSET) are not checked
+            source.previous();
+            row = 0;
+            return false;
+        }
+        while (source.previous()) {
+            if (filter()) {
+                row = afterLast ? accepted : Math.max(row - 1, 0);
+                afterLast = false;
+                return true;
+            }
+        }
+        row = 0;
+        afterLast = false;
+        return false;
+    }
+}
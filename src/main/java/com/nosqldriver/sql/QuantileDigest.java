@@ -0,0 +1,100 @@
+package com.nosqldriver.sql;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Mergeable quantile sketch in t-digest style. Values are kept as weighted centroids; centroids near the median
+ * are merged more aggressively than centroids near the tails, so extreme percentiles remain accurate.
+ * The number of centroids is bounded by about {@link #SIZE}.
+ * Server side aggregation ({@code sketch_stats} of {@code stats.lua}) keeps similar centroids; the two are never merged.
+ */
+class QuantileDigest implements Sketch {
+    private static final int SIZE = 100;
+    private static final int BUFFER = 8 * SIZE;
+    private final double quantile;
+    private final double[][] centroids = new double[BUFFER][];
+    private int size = 0;
+
+    QuantileDigest(double quantile) {
+        this.quantile = quantile;
+    }
+
+    void add(double value) {
+        add(value, 1);
+    }
+
+    void merge(QuantileDigest other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.centroids[i][0], other.centroids[i][1]);
+        }
+    }
+
+    @Override
+    public Double result() {
+        compress();
+        if (size == 0) {
+            return null;
+        }
+        double total = total();
+        double target = quantile * total;
+        double cumulative = 0;
+        double previousMean = Double.NaN;
+        double previousCenter = 0;
+        for (int i = 0; i < size; i++) {
+            double mean = centroids[i][0];
+            double center = cumulative + centroids[i][1] / 2;
+            if (target <= center) {
+                return i == 0 ? mean : previousMean + (mean - previousMean) * (target - previousCenter) / (center - previousCenter);
+            }
+            previousMean = mean;
+            previousCenter = center;
+            cumulative += centroids[i][1];
+        }
+        return previousMean;
+    }
+
+    private void add(double mean, double weight) {
+        if (size == BUFFER) {
+            compress();
+        }
+        centroids[size++] = new double[] {mean, weight};
+    }
+
+    private void compress() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.sort(centroids, 0, size, Comparator.comparingDouble(c -> c[0]));
+        double total = total();
+        int n = 0;
+        double mean = centroids[0][0];
+        double weight = centroids[0][1];
+        double cumulative = 0;
+        for (int i = 1; i < size; i++) {
+            double[] c = centroids[i];
+            double q = (cumulative + weight + c[1] / 2) / total;
+            double limit = Math.max(1, 4 * total * q * (1 - q) / SIZE);
+            if (weight + c[1] <= limit) {
+                weight += c[1];
+                mean += (c[0] - mean) * c[1] / weight;
+            } else {
+                centroids[n++] = new double[] {mean, weight};
+                cumulative += weight;
+                mean = c[0];
+                weight = c[1];
+            }
+        }
+        centroids[n++] = new double[] {mean, weight};
+        Arrays.fill(centroids, n, size, null);
+        size = n;
+    }
+
+    private double total() {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += centroids[i][1];
+        }
+        return total;
+    }
+}
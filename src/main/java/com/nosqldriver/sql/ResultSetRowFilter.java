@@ -5,13 +5,26 @@ import com.nosqldriver.util.SneakyThrower;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class ResultSetRowFilter extends ExpressionEvaluator<ResultSet> {
+    private final Collection<String> hiddenNames;
+
     public ResultSetRowFilter(String expr, FunctionManager functionManager, DriverPolicy driverPolicy) {
+        this(expr, Collections.emptyList(), functionManager, driverPolicy);
+    }
+
+    /**
+     * @param hiddenNames names referenced by the expression that are not visible columns of the result set, e.g. bins
+     *                    that are retrieved for the filter only or fields of map like {@code attrs[color]}
+     */
+    public ResultSetRowFilter(String expr, Collection<String> hiddenNames, FunctionManager functionManager, DriverPolicy driverPolicy) {
         super(expr, Collections.emptyMap(), functionManager, driverPolicy);
+        this.hiddenNames = hiddenNames;
     }
 
     @Override
@@ -28,6 +41,15 @@ public class ResultSetRowFilter extends ExpressionEvaluator<ResultSet> {
                     ctx.put(label, rs.getObject(i));
                 }
             }
+            for (String name : hiddenNames) {
+                if (!ctx.containsKey(name)) {
+                    try {
+                        ctx.put(name, rs.getObject(name));
+                    } catch (SQLException e) {
+                        // the field is missing in this row
+                    }
+                }
+            }
             return ctx;
         });
     }
@@ -35,6 +35,8 @@ public class ResultSetWrapper implements ResultSet {
     private final Map<String, String> aliasToName; // alias to name map
     protected List<DataColumn> columns;
     private final boolean indexByName;
+    private ResultSetMetaData metaData;
+    private ResultSet metaDataSource; // metadata is resolved once per wrapped result set; chained wrappers switch it
 
 
     public ResultSetWrapper(ResultSet rs, List<DataColumn> columns, boolean indexByName) {
@@ -245,13 +247,20 @@ public class ResultSetWrapper implements ResultSet {
 
     @Override
     public ResultSetMetaData getMetaData() throws SQLException {
-        if (rs != null && columns.stream().allMatch(c -> HIDDEN.equals(c.getRole()))) {
-            return rs.getMetaData();
+        if (metaData != null && metaDataSource == rs) {
+            return metaData;
         }
-        DataColumnBasedResultSetMetaData md = new DataColumnBasedResultSetMetaData(columns); //TODO: should we filter not HIDDEN columns here?
-        if (rs != null) {
-            md = md.updateData(rs.getMetaData(), true);
+        ResultSetMetaData md;
+        if (rs != null && columns.stream().allMatch(c -> HIDDEN.equals(c.getRole()))) {
+            md = rs.getMetaData();
+        } else {
+            md = new DataColumnBasedResultSetMetaData(columns); //TODO: should we filter not HIDDEN columns here?
+            if (rs != null) {
+                md = ((DataColumnBasedResultSetMetaData)md).updateData(rs.getMetaData(), true);
+            }
         }
+        metaData = md;
+        metaDataSource = rs;
         return md;
     }
 
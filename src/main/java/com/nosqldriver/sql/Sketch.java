@@ -0,0 +1,9 @@
+package com.nosqldriver.sql;
+
+/**
+ * Mergeable summary of aggregated values that has constant size regardless of number of values.
+ * The final value of the aggregation is calculated by {@link #result()} once all values are added.
+ */
+interface Sketch {
+    Object result();
+}
@@ -0,0 +1,17 @@
+package com.nosqldriver.util;
+
+import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+
+@FunctionalInterface
+public interface DoubleBinaryFunction extends BiFunction<Number, Number, Double>, DoubleBinaryOperator, TypedFunction {
+    @Override
+    default Double apply(Number left, Number right) {
+        return left == null || right == null ? null : applyAsDouble(left.doubleValue(), right.doubleValue());
+    }
+
+    @Override
+    default Class<?> getReturnType() {
+        return Double.class;
+    }
+}
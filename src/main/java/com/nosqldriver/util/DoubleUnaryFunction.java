@@ -0,0 +1,17 @@
+package com.nosqldriver.util;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+@FunctionalInterface
+public interface DoubleUnaryFunction extends Function<Number, Double>, DoubleUnaryOperator, TypedFunction {
+    @Override
+    default Double apply(Number value) {
+        return value == null ? null : applyAsDouble(value.doubleValue());
+    }
+
+    @Override
+    default Class<?> getReturnType() {
+        return Double.class;
+    }
+}
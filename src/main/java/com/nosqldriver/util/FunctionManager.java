@@ -21,14 +21,16 @@ public class FunctionManager {
 
     public void addFunction(String name, String className) {
         try {
-            @SuppressWarnings("unchecked")
-            Class<Function<?, ?>> clazz = (Class<Function<?, ?>>) Class.forName(className);
-            if (!Function.class.isAssignableFrom(clazz)) {
-                throw new IllegalArgumentException(format("Class %s is not valid function because it does not implement interface %s", className, Function.class));
+            Class<?> clazz = Class.forName(className);
+            // TypedFunction only declares the return type, so the function itself must be callable
+            if (!Function.class.isAssignableFrom(clazz) && !BiFunction.class.isAssignableFrom(clazz)) {
+                throw new IllegalArgumentException(format("Class %s is not valid function because it implements neither %s nor %s", className, Function.class, BiFunction.class));
             }
-            addFunction(name, clazz);
+            addFunction(name, clazz.getConstructor().newInstance());
         } catch (ClassNotFoundException e) {
             throw new IllegalArgumentException(format("Class %s is not valid function", className));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(e);
         }
     }
 
@@ -47,7 +49,7 @@ public class FunctionManager {
     }
 
     public Optional<Class> getFunctionReturnType(String name) {
-        return Optional.ofNullable(functions.get(name)).flatMap(f -> getFunctionReturnType(f.getClass()));
+        return Optional.ofNullable(functions.get(name)).flatMap(f -> f instanceof TypedFunction ? Optional.<Class>of(((TypedFunction)f).getReturnType()) : getFunctionReturnType(f.getClass()));
     }
 
     private Optional<Class> getFunctionReturnType(Class deserializerClass) {
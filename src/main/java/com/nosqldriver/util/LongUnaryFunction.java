@@ -0,0 +1,17 @@
+package com.nosqldriver.util;
+
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+@FunctionalInterface
+public interface LongUnaryFunction extends Function<Number, Long>, LongUnaryOperator, TypedFunction {
+    @Override
+    default Long apply(Number value) {
+        return value == null ? null : applyAsLong(value.longValue());
+    }
+
+    @Override
+    default Class<?> getReturnType() {
+        return Long.class;
+    }
+}
@@ -22,7 +22,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
 
 public class LuaScriptEngineWrapper extends ScriptEngineWrapper {
@@ -112,6 +115,12 @@ public class LuaScriptEngineWrapper extends ScriptEngineWrapper {
     }
 
     private Object wrap(Object obj) {
+        if (obj instanceof DoubleUnaryOperator || obj instanceof LongUnaryOperator) {
+            return CoerceJavaToLua.coerce(new LuaUnaryOperatorWrapper(obj));
+        }
+        if (obj instanceof DoubleBinaryOperator) {
+            return CoerceJavaToLua.coerce(new LuaDoubleBinaryOperatorWrapper((DoubleBinaryOperator)obj));
+        }
         if (obj instanceof Supplier) {
             return CoerceJavaToLua.coerce(new LuaSupplierWrapper((Supplier)obj));
         }
@@ -143,6 +152,44 @@ public class LuaScriptEngineWrapper extends ScriptEngineWrapper {
         }
     }
 
+    // Numeric arguments are passed to primitive operators directly, so neither arguments nor result are boxed.
+    private static class LuaUnaryOperatorWrapper extends OneArgFunction {
+        private final LongUnaryOperator longOperator;
+        private final DoubleUnaryOperator doubleOperator;
+
+        private LuaUnaryOperatorWrapper(Object operator) {
+            longOperator = operator instanceof LongUnaryOperator ? (LongUnaryOperator)operator : null;
+            doubleOperator = operator instanceof DoubleUnaryOperator ? (DoubleUnaryOperator)operator : null;
+        }
+
+        @Override
+        public LuaValue call(LuaValue arg) {
+            if (arg.isnil()) {
+                return LuaValue.NIL;
+            }
+            if (longOperator != null && (doubleOperator == null || arg.isinttype())) {
+                return LuaInteger.valueOf(longOperator.applyAsLong(arg.checklong()));
+            }
+            return LuaValue.valueOf(doubleOperator.applyAsDouble(arg.checkdouble()));
+        }
+    }
+
+    private static class LuaDoubleBinaryOperatorWrapper extends TwoArgFunction {
+        private final DoubleBinaryOperator operator;
+
+        private LuaDoubleBinaryOperatorWrapper(DoubleBinaryOperator operator) {
+            this.operator = operator;
+        }
+
+        @Override
+        public LuaValue call(LuaValue arg1, LuaValue arg2) {
+            if (arg1.isnil() || arg2.isnil()) {
+                return LuaValue.NIL;
+            }
+            return LuaValue.valueOf(operator.applyAsDouble(arg1.checkdouble(), arg2.checkdouble()));
+        }
+    }
+
     private class LuaFunctionWrapper extends OneArgFunction {
         private final Function function;
         private final Type paramType;
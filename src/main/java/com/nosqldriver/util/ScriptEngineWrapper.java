@@ -110,7 +110,7 @@ public class ScriptEngineWrapper implements ScriptEngine {
     }
 
     private boolean isFunction(Object obj) {
-        return obj instanceof Function || obj instanceof BiFunction || obj instanceof Predicate || obj instanceof Supplier || obj instanceof TriFunction || obj instanceof VarargsFunction;
+        return obj instanceof Function || obj instanceof BiFunction || obj instanceof Predicate || obj instanceof Supplier || obj instanceof TriFunction || obj instanceof VarargsFunction || obj instanceof TypedFunction;
     }
 
     protected Object unwrapResult(Object obj) {
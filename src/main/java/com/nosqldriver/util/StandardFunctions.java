@@ -22,7 +22,9 @@ import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -305,89 +307,88 @@ class StandardFunctions {
                 return dataUtil.toArray(parseJson(json));
             }
         });
-
-
-        // Numeric functions
-        dataFunctions.put("abs", new @TypeGroup(Number.class)  Function<Number, Number>() {
+        // Collection functions are executed using collection indexes when possible, see AerospikeQueryFactory
+        dataFunctions.put("array_contains", new @TypeGroup(List.class) BiFunction<Object, Object, Boolean>() {
             @Override
-            public Number apply(Number value) {
-                if (value == null) {
-                    return null;
-                }
-                if (value instanceof Double || value instanceof BigDecimal) {
-                    return Math.abs(value.doubleValue());
-                }
-                if (value instanceof Float) {
-                    return Math.abs((Float)value);
-                }
-                if (value instanceof Long || value instanceof AtomicLong) {
-                    return Math.abs(value.longValue());
-                }
-                if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof AtomicInteger) {
-                    return Math.abs(value.intValue());
-                }
-                throw new IllegalArgumentException("abs() supports only numeric arguments");
+            public Boolean apply(Object list, Object value) {
+                return list instanceof Collection && contains((Collection<?>)list, value);
             }
         });
+        dataFunctions.put("map_contains_key", new @TypeGroup(Map.class) BiFunction<Object, Object, Boolean>() {
+            @Override
+            public Boolean apply(Object map, Object key) {
+                return map instanceof Map && contains(((Map<?, ?>)map).keySet(), key);
+            }
+        });
+        dataFunctions.put("map_contains_value", new @TypeGroup(Map.class) BiFunction<Object, Object, Boolean>() {
+            @Override
+            public Boolean apply(Object map, Object value) {
+                return map instanceof Map && contains(((Map<?, ?>)map).values(), value);
+            }
+        });
+
+
+        // Numeric functions
+        dataFunctions.put("abs", new Abs());
 
-        dataFunctions.put("acos", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("acos", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.acos(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return Math.acos(value);
             }
         });
-        dataFunctions.put("asin", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("asin", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.asin(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return Math.asin(value);
             }
         });
-        dataFunctions.put("atan", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("atan", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.atan(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return Math.atan(value);
             }
         });
-        dataFunctions.put("atan2", new @TypeGroup(Number.class)  BiFunction<Number, Number, Double>() {
+        dataFunctions.put("atan2", new @TypeGroup(Number.class) DoubleBinaryFunction() {
             @Override
-            public Double apply(Number y, Number x) {
-                return Math.atan2(y.doubleValue(), x.doubleValue());
+            public double applyAsDouble(double y, double x) {
+                return Math.atan2(y, x);
             }
         });
-        dataFunctions.put("cos", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("cos", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.cos(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return Math.cos(value);
             }
         });
-        dataFunctions.put("cot", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("cot", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return 1.0 / Math.tan(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return 1.0 / Math.tan(value);
             }
         });
-        dataFunctions.put("exp", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("exp", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.exp(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return Math.exp(value);
             }
         });
-        dataFunctions.put("ln", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("ln", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.log(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return Math.log(value);
             }
         });
-        dataFunctions.put("log10", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("log10", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.log10(value.doubleValue());
+            public double applyAsDouble(double value) {
+                return Math.log10(value);
             }
         });
-        dataFunctions.put("log2", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("log2", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number value) {
-                return Math.log(value.doubleValue()) / Math.log(2);
+            public double applyAsDouble(double value) {
+                return Math.log(value) / Math.log(2);
             }
         });
         dataFunctions.put("pi", new @TypeGroup(Number.class) Supplier<Double>() {
@@ -396,55 +397,55 @@ class StandardFunctions {
                 return Math.PI;
             }
         });
-        BiFunction<Number, Number, Double> pow = new @TypeGroup(Number.class) BiFunction<Number, Number, Double>() {
+        DoubleBinaryFunction pow = new @TypeGroup(Number.class) DoubleBinaryFunction() {
             @Override
-            public Double apply(Number a, Number b) {
-                return Math.pow(a.doubleValue(), b.doubleValue());
+            public double applyAsDouble(double a, double b) {
+                return Math.pow(a, b);
             }
         };
         dataFunctions.put("pow", pow);
         dataFunctions.put("power", pow);
 
-        dataFunctions.put("degrees", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("degrees", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number angrad) {
-                return Math.toDegrees(angrad.doubleValue());
+            public double applyAsDouble(double angrad) {
+                return Math.toDegrees(angrad);
             }
         });
-        dataFunctions.put("radians", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("radians", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number angdeg) {
-                return Math.toRadians(angdeg.doubleValue());
+            public double applyAsDouble(double angdeg) {
+                return Math.toRadians(angdeg);
             }
         });
-        dataFunctions.put("sin", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("sin", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number a) {
-                return Math.sin(a.doubleValue());
+            public double applyAsDouble(double a) {
+                return Math.sin(a);
             }
         });
-        dataFunctions.put("tan", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("tan", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number a) {
-                return Math.tan(a.doubleValue());
+            public double applyAsDouble(double a) {
+                return Math.tan(a);
             }
         });
-        dataFunctions.put("ceil", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("ceil", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number a) {
-                return Math.ceil(a.doubleValue());
+            public double applyAsDouble(double a) {
+                return Math.ceil(a);
             }
         });
-        dataFunctions.put("floor", new @TypeGroup(Number.class)  Function<Number, Double>() {
+        dataFunctions.put("floor", new @TypeGroup(Number.class) DoubleUnaryFunction() {
             @Override
-            public Double apply(Number a) {
-                return Math.floor(a.doubleValue());
+            public double applyAsDouble(double a) {
+                return Math.floor(a);
             }
         });
-        dataFunctions.put("round", new @TypeGroup(Number.class)  BiFunction<Number, Integer, Double>() {
+        dataFunctions.put("round", new @TypeGroup(Number.class) DoubleBinaryFunction() {
             @Override
-            public Double apply(Number value, Integer places) {
-                return BigDecimal.valueOf(value.doubleValue()).setScale(places, RoundingMode.HALF_UP).doubleValue();
+            public double applyAsDouble(double value, double places) {
+                return BigDecimal.valueOf(value).setScale((int)places, RoundingMode.HALF_UP).doubleValue();
             }
         });
         dataFunctions.put("rand", new VarargsFunction<Object, Double>() {
@@ -456,6 +457,45 @@ class StandardFunctions {
     }
 
 
+    // Integer arguments keep their type, so abs() is specialised for both long and double and is not a DoubleUnaryFunction.
+    @TypeGroup(Number.class)
+    private static class Abs implements Function<Number, Number>, LongUnaryOperator, DoubleUnaryOperator, TypedFunction {
+        @Override
+        public Number apply(Number value) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Double || value instanceof BigDecimal) {
+                return Math.abs(value.doubleValue());
+            }
+            if (value instanceof Float) {
+                return Math.abs((Float)value);
+            }
+            if (value instanceof Long || value instanceof AtomicLong) {
+                return Math.abs(value.longValue());
+            }
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof AtomicInteger) {
+                return Math.abs(value.intValue());
+            }
+            throw new IllegalArgumentException("abs() supports only numeric arguments");
+        }
+
+        @Override
+        public long applyAsLong(long value) {
+            return Math.abs(value);
+        }
+
+        @Override
+        public double applyAsDouble(double value) {
+            return Math.abs(value);
+        }
+
+        @Override
+        public Class<?> getReturnType() {
+            return Number.class;
+        }
+    }
+
     Map<String, Object> getFunctions() {
         return connectionDependentFunctions;
     }
@@ -476,6 +516,14 @@ class StandardFunctions {
         return c;
     }
 
+    // Numbers are compared by value because integer values stored in the cluster are read as long
+    private static boolean contains(Collection<?> collection, Object value) {
+        if (value instanceof Number) {
+            return collection.stream().anyMatch(e -> e instanceof Number && ((Number)e).doubleValue() == ((Number)value).doubleValue());
+        }
+        return collection.contains(value);
+    }
+
     private static <T> T parseJson(String json) {
         try {
             //noinspection unchecked
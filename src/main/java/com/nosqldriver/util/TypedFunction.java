@@ -0,0 +1,10 @@
+package com.nosqldriver.util;
+
+/**
+ * Function that declares its return type explicitly instead of relying on reflective discovery of generic parameters.
+ * Primitive specialisations ({@link DoubleUnaryFunction}, {@link LongUnaryFunction}, {@link DoubleBinaryFunction})
+ * are called by script engines without boxing of arguments and result.
+ */
+public interface TypedFunction {
+    Class<?> getReturnType();
+}
@@ -1,23 +1,39 @@
 package com.nosqldriver.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.sql.SQLException;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.lang.String.format;
 import static java.util.Arrays.stream;
-import static java.util.stream.Collectors.toList;
 
 public class ValueExtractor {
     private static final String[] getterPrefixes = {"get", "is"};
+    private static final MethodType getterType = MethodType.methodType(Object.class, Object.class);
+    private static final int MAX_CACHED_PATHS = 1024;
+    private static final ConcurrentMap<String, String[]> paths = new ConcurrentHashMap<>();
+    // Getters are resolved once per class and property; missing getters are cached too (as empty optional).
+    // ClassValue does not prevent unloading of the class and its class loader.
+    private static final ClassValue<ConcurrentMap<String, Optional<MethodHandle>>> getters = new ClassValue<ConcurrentMap<String, Optional<MethodHandle>>>() {
+        @Override
+        protected ConcurrentMap<String, Optional<MethodHandle>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     public Object getValue(Object obj, String key) {
-        Collection<String> path = "".equals(key) ? Collections.singleton("") : stream(key.replace("]", "").split("[\\[.]")).filter(p -> !"".equals(p)).collect(toList());
-
+        // keys of aggregation results (e.g. approx_percentile(x, 0.95)) may contain characters used as path delimiters
+        if (obj instanceof Map && ((Map<?, ?>)obj).containsKey(key)) {
+            return ((Map<?, ?>)obj).get(key);
+        }
         Object value = obj;
-        for (String p : path) {
+        for (String p : path(key)) {
             if (value == null) {
                 return null;
             }
@@ -25,30 +41,51 @@ public class ValueExtractor {
                 value = ((Map) value).get(p);
                 continue;
             }
-            Class clazz = value.getClass();
-            Method getter = null;
-
-            for (String prefix: getterPrefixes) {
-                try {
-                    //noinspection unchecked
-                    getter = clazz.getMethod(prefix + p.substring(0, 1).toUpperCase() + p.substring(1));
-                } catch (NoSuchMethodException e) {
-                    // try next getter
-                }
-            }
-            if (getter == null) {
+            Class<?> clazz = value.getClass();
+            Optional<MethodHandle> getter = getters.get(clazz).computeIfAbsent(p, property -> findGetter(property, clazz));
+            if (!getter.isPresent()) {
                 SneakyThrower.sneakyThrow(new SQLException(format("Cannot find getter for field %s in class %s", p, value.getClass())));
             }
-            value = invoke(value, getter);
+            value = invoke(value, getter.get());
         }
 
         return value;
     }
 
-    private Object invoke(Object obj, Method method, Object ... args) {
+    private String[] path(String key) {
+        String[] path = paths.get(key);
+        if (path == null) {
+            path = "".equals(key) ? new String[] {""} : stream(key.replace("]", "").split("[\\[.]")).filter(p -> !"".equals(p)).toArray(String[]::new);
+            if (paths.size() < MAX_CACHED_PATHS) {
+                paths.putIfAbsent(key, path);
+            }
+        }
+        return path;
+    }
+
+    private Optional<MethodHandle> findGetter(String property, Class<?> clazz) {
+        Method getter = null;
+        for (String prefix: getterPrefixes) {
+            try {
+                getter = clazz.getMethod(prefix + property.substring(0, 1).toUpperCase() + property.substring(1));
+            } catch (NoSuchMethodException e) {
+                // try next getter
+            }
+        }
+        if (getter == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(MethodHandles.publicLookup().unreflect(getter).asType(getterType));
+        } catch (IllegalAccessException e) {
+            return SneakyThrower.sneakyThrow(new SQLException(e));
+        }
+    }
+
+    private Object invoke(Object obj, MethodHandle getter) {
         try {
-            return method.invoke(obj, args);
-        } catch (ReflectiveOperationException e) {
+            return (Object)getter.invokeExact(obj);
+        } catch (Throwable e) {
             return SneakyThrower.sneakyThrow(new SQLException(e));
         }
     }
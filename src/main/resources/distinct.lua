@@ -1,17 +1,55 @@
-function distinct(stream, name)
-	local existing = map()
+-- Returns distinct values of bin as keys of map (type:value). If limit is not negative each node returns
+-- at most limit values: the first values according to order ('asc' or 'desc') or any values if order is empty.
+function distinct(stream, name, limit, order)
+    limit = limit or -1
+    order = order or ''
+
+    -- numbers are compared as numbers, other values as strings like the client does
+    local function less(a, b)
+        if type(a) == 'number' and type(b) == 'number' then
+            return a < b
+        end
+        return tostring(a) < tostring(b)
+    end
+
+    local function top(values)
+        if limit < 0 or map.size(values) <= limit then
+            return values
+        end
+        local keys = {}
+        for k in map.keys(values) do
+            table.insert(keys, k)
+        end
+        if order ~= '' then
+            table.sort(keys, function(k1, k2)
+                if order == 'desc' then
+                    return less(values[k2], values[k1])
+                end
+                return less(values[k1], values[k2])
+            end)
+        end
+        local result = map()
+        for i=1,limit do
+            result[keys[i]] = values[keys[i]]
+        end
+        return result
+    end
+
+    local function aggregator(values, rec)
+        local val = rec and rec[name]
+        -- without order any values can be returned, so new values are not needed when the limit is reached
+        if val ~= nil and (order ~= '' or limit < 0 or map.size(values) < limit) then
+            values[type(val) .. ":" .. val] = val
+        end
+        return values
+    end
 
     local function reducer(m1, m2)
-        for k in map.keys(m2) do
-            m1[k] = name
+        for k, v in map.pairs(m2) do
+            m1[k] = v
         end
-        return m1
+        return top(m1)
     end
 
-	local function mapper(rec)
-        local val = ((rec and rec[name]) or nil)
-        existing[type(val) .. ":" .. val] = name
-		return existing
-	end
-    return stream : map(mapper) : reduce(reducer)
+    return stream : aggregate(map(), aggregator) : map(top) : reduce(reducer)
 end
@@ -1,3 +1,11 @@
+-- Partial group by aggregation performed by each node. Groups are kept in nested maps keyed by raw values
+-- of the group by fields (one level per field), so no composite string key is built for each record.
+-- Each node returns list of its groups; a group is a list of group by values followed by partial values
+-- of the aggregate functions in order of the arguments. Partials of all nodes are merged by the client.
+-- Arguments orderby:name:asc|desc and limit:n make each node return only its first n groups ordered by the group by fields.
+-- Important: corresponding constant is defined in com.nosqldriver.aerospike.sql.query.AerospikeGroupByQuery
+local NULL = '_nsqld_as_null_'
+
 function groupby(stream, ...)
     local function split(funcfield)
         local func = "count"
@@ -10,126 +18,152 @@ function groupby(stream, ...)
         return func, name
     end
 
-    local function join(delimiter, list)
-        local result = ""
-        for i=1,#list do
-            if i > 1 then
-                result = result .. delimiter
-            end
-            result = result .. type(list[i]) .. ":" .. list[i]
-        end
-        return result
-    end
-
-
-    -- Important: corresponding constant is defined in com.nosqldriver.aerospike.sql.ResultSetOverDistinctMap
-    local DELIMITER = '_nsqld_as_d_'
-	local groups = map()
-    local parm={...}
+    local parm = {...}
     local groupbys = {}
-    local aggrs = {}
+    local funcs = {}
+    local names = {}
+    local orders = {}
+    local limit = -1
     for i=1,#parm do
-        local func, name = split(parm[i])
+        local func, name = split(tostring(parm[i]))
         if func == 'groupby' then
             table.insert(groupbys, name)
+        elseif func == 'orderby' then
+            local field, direction = split(name)
+            table.insert(orders, {field = field, desc = direction == 'desc'})
+        elseif func == 'limit' then
+            limit = tonumber(name)
         else
-            table.insert(aggrs, parm[i])
+            table.insert(funcs, func)
+            table.insert(names, name)
+        end
+    end
+    local depth = #groupbys
+    for i=1,#orders do
+        for j=1,depth do
+            if groupbys[j] == orders[i].field then
+                orders[i].index = j
+            end
         end
     end
 
-    local function reducer(a, b)
-        local result = map()
-
+    local function initial(func)
+        if func == 'count' then
+            return 0
+        elseif func == 'avg' then
+            return list{0, 0}
+        end
+        return NULL
+    end
 
-        for i=1,#aggrs do
-            local aggr = aggrs[i]
-            local func, name = split(aggr)
-            for k in map.keys(a) do
-                if b[k] then
-                    local out = map()
-                    local ak = a[k]
-                    local bk = b[k]
-                    local aggrkey = func .. '(' .. name .. ')'
-                    if func == 'count' and name == '*' then
-                        out[aggrkey] = ak[aggrkey] + bk[aggrkey]
-                    elseif name ~= '*' then
-                        if func == 'count' then
-                            out[aggrkey] = ak[aggrkey] + bk[aggrkey]
-                        elseif func == 'sum' then
-                            out[aggrkey] = ak[aggrkey] + bk[aggrkey]
-                        elseif func == 'min' then
-                            out[aggrkey] = (ak[aggrkey] > bk[aggrkey] and bk[aggrkey]) or ak[aggrkey]
-                        elseif func == 'max' then
-                            out[aggrkey] = (ak[aggrkey] < bk[aggrkey] and bk[aggrkey]) or ak[aggrkey]
-                        elseif func == 'avg' then
-                            local s = ak['sum(' .. name .. ')'] + bk['sum(' .. name .. ')']
-                            local c = ak['count(' .. name .. ')'] + bk['count(' .. name .. ')']
-                            out['avg(' .. name .. ')'] = s / c
-                        end
-                    end
-                    local rk = (result[k] or map())
-                    for k1 in map.keys(out) do
-                        rk[k1] = out[k1]
-                    end
-                    result[k] = rk
+    local function aggregator(groups, rec)
+        local node = groups
+        for i=1,depth do
+            local val = rec[groupbys[i]]
+            if val == nil then
+                val = NULL
+            end
+            local child = node[val]
+            if child == nil then
+                if i < depth then
+                    child = map()
                 else
-                    result[k] = a[k]
+                    child = list()
+                    for j=1,#funcs do
+                        list.append(child, initial(funcs[j]))
+                    end
                 end
+                node[val] = child
+            end
+            node = child
+        end
 
-                for k in map.keys(b) do
-                    if not a[k] then
-                        result[k] = b[k]
-                        local out = result[k]
-                        if name ~= '*' and func == 'avg' then
-                            out['avg(' .. name .. ')'] = out['sum(' .. name .. ')'] / out['count(' .. name .. ')']
-                        end
+        local stats = node
+        for i=1,#funcs do
+            local func = funcs[i]
+            local val = (names[i] == '*' and 1) or rec[names[i]]
+            if val ~= nil then
+                local s = stats[i]
+                if func == 'count' then
+                    stats[i] = s + 1
+                elseif func == 'sum' then
+                    stats[i] = ((s == NULL and 0) or s) + val
+                elseif func == 'sumsqs' then
+                    stats[i] = ((s == NULL and 0) or s) + val ^ 2
+                elseif func == 'min' then
+                    if s == NULL or val < s then
+                        stats[i] = val
+                    end
+                elseif func == 'max' then
+                    if s == NULL or val > s then
+                        stats[i] = val
                     end
+                elseif func == 'avg' then
+                    s[1] = s[1] + val
+                    s[2] = s[2] + 1
+                    stats[i] = s
                 end
             end
-
         end
-
-        return result
+        return groups
     end
 
-	local function mapper(rec)
-        local groupbyValues = {}
-        for i=1,#groupbys do
-            table.insert(groupbyValues, ((rec and rec[groupbys[i]]) or 'null'))
+    local function collect(node, level, keys, out)
+        for key, value in map.pairs(node) do
+            keys[level] = key
+            if level < depth then
+                collect(value, level + 1, keys, out)
+            else
+                local group = list()
+                for i=1,depth do
+                    list.append(group, keys[i])
+                end
+                for i=1,list.size(value) do
+                    list.append(group, value[i])
+                end
+                table.insert(out, group)
+            end
         end
+        return out
+    end
 
-        local grp = join(DELIMITER, groupbyValues)
-        local stats = groups[grp] or map()
-
-        for i=1,#aggrs do
-            local aggr = aggrs[i]
-            local func, name = split(aggr)
-            local aggrkey = func .. '(' .. name .. ')'
+    -- nulls first, numbers are compared as numbers, other values as strings like the client does
+    local function less(a, b)
+        if a == NULL or b == NULL then
+            return a == NULL and b ~= NULL
+        end
+        if type(a) == 'number' and type(b) == 'number' then
+            return a < b
+        end
+        return tostring(a) < tostring(b)
+    end
 
-            if func == "count" and name == "*" then
-                stats[aggrkey] = (stats[aggrkey] or 0) + ((rec and 1 ) or 0)
-            elseif name ~= '*' then
-                local val = ((rec and rec[name]) or nil)
-                local countkey = 'count(' .. name .. ')'
-                local sumkey = 'sum(' .. name .. ')'
-                if val then
-                    if func == 'count' or func == 'avg' then
-                        stats[countkey] = (stats[countkey] or 0) + ((val and 1 ) or 0)
-                    elseif func == 'sum' or func == 'avg' then
-                        stats[sumkey] = (stats[sumkey] or 0) + (val or 0)
-                    elseif func == 'sumsqs' then
-                        stats[aggrkey] = (stats[aggrkey] or 0) + (val ^ 2)
-                    elseif func == 'min' then
-                        stats[aggrkey] = (not stats[aggrkey] and val) or (stats[aggrkey] and val < stats[aggrkey] and val) or stats[aggrkey]
-                    elseif func == 'max' then
-                        stats[aggrkey] = (not stats[aggrkey] and val) or (stats[aggrkey] and val > stats[aggrkey] and val) or stats[aggrkey]
-                    end
-                end
+    local function before(g1, g2)
+        for i=1,#orders do
+            local a = g1[orders[i].index]
+            local b = g2[orders[i].index]
+            if less(a, b) then
+                return not orders[i].desc
+            elseif less(b, a) then
+                return orders[i].desc
             end
         end
-        groups[grp] = stats
-        return groups
+        return false
+    end
+
+    local function tolist(groups)
+        local all = collect(groups, 1, {}, {})
+        local n = #all
+        if limit >= 0 and n > limit then
+            table.sort(all, before)
+            n = limit
+        end
+        local result = list()
+        for i=1,n do
+            list.append(result, all[i])
+        end
+        return result
     end
 
-    return stream : map(mapper) : reduce(reducer)
+    return stream : aggregate(map(), aggregator) : map(tolist)
 end
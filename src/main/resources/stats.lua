@@ -41,3 +41,267 @@ function single_bin_stats(stream, ...)
 	end
 	return stream : map(mapper) : reduce(reducer)
 end
+
+-- Sketch based aggregation. Approximate aggregates have constant memory and network cost regardless of cardinality:
+-- approx_count_distinct uses HyperLogLog with 1024 registers (standard error about 3%),
+-- approx_percentile uses t-digest like list of centroids that is compressed to about DIGEST_SIZE centroids.
+-- Each argument is an aggregation expression, e.g. 'count(*)', 'avg(age)', 'approx_percentile(age, 0.95)';
+-- it is used as a key of the result map.
+local HLL_M = 1024
+local HLL_INDEX_DIVISOR = 4194304 -- 2^22: upper 10 bits of 32 bit hash select the register
+local DIGEST_SIZE = 100
+local TWO_32 = 4294967296
+
+-- multiplication modulo 2^32 that does not exceed precision of double
+local function mul32(a, b)
+    local bh = math.floor(b / 65536)
+    local bl = b % 65536
+    return (a * bl + ((a * bh) % 65536) * 65536) % TWO_32
+end
+
+local function hash(val)
+    local s = type(val) .. ':' .. tostring(val)
+    local h = 2166136261
+    for i = 1, #s do
+        h = mul32((h + string.byte(s, i)) % TWO_32, 16777619)
+    end
+    h = (h + math.floor(h / 65536)) % TWO_32
+    h = mul32(h, 2246822507)
+    h = (h + math.floor(h / 8192)) % TWO_32
+    h = mul32(h, 3266489909)
+    return (h + math.floor(h / 65536)) % TWO_32
+end
+
+local function hll_new()
+    local registers = list()
+    for i = 1, HLL_M do
+        list.append(registers, 0)
+    end
+    return registers
+end
+
+local function hll_add(registers, val)
+    local h = hash(val)
+    local index = math.floor(h / HLL_INDEX_DIVISOR) + 1
+    local w = h % HLL_INDEX_DIVISOR
+    local rank = 1
+    local bit = HLL_INDEX_DIVISOR / 2
+    while rank <= 22 and w < bit do
+        rank = rank + 1
+        bit = bit / 2
+    end
+    if rank > registers[index] then
+        registers[index] = rank
+    end
+end
+
+local function hll_merge(a, b)
+    for i = 1, HLL_M do
+        if b[i] > a[i] then
+            a[i] = b[i]
+        end
+    end
+    return a
+end
+
+local function hll_estimate(registers)
+    local sum = 0
+    local zeros = 0
+    for i = 1, HLL_M do
+        local r = registers[i]
+        sum = sum + 2 ^ (-r)
+        if r == 0 then
+            zeros = zeros + 1
+        end
+    end
+    local estimate = 0.7213 / (1 + 1.079 / HLL_M) * HLL_M * HLL_M / sum
+    if estimate <= 2.5 * HLL_M and zeros > 0 then
+        estimate = HLL_M * math.log(HLL_M / zeros)
+    elseif estimate > TWO_32 / 30 then
+        estimate = -TWO_32 * math.log(1 - estimate / TWO_32)
+    end
+    return math.floor(estimate + 0.5)
+end
+
+-- digest is a flat list of centroids: mean1, count1, mean2, count2, ...
+local function digest_compress(digest)
+    local centroids = {}
+    local total = 0
+    for i = 1, list.size(digest), 2 do
+        table.insert(centroids, {digest[i], digest[i + 1]})
+        total = total + digest[i + 1]
+    end
+    local result = list()
+    if #centroids == 0 then
+        return result
+    end
+    table.sort(centroids, function(a, b) return a[1] < b[1] end)
+    local mean = centroids[1][1]
+    local count = centroids[1][2]
+    local cumulative = 0
+    for i = 2, #centroids do
+        local c = centroids[i]
+        local q = (cumulative + count + c[2] / 2) / total
+        local limit = math.max(1, 4 * total * q * (1 - q) / DIGEST_SIZE)
+        if count + c[2] <= limit then
+            count = count + c[2]
+            mean = mean + (c[1] - mean) * c[2] / count
+        else
+            list.append(result, mean)
+            list.append(result, count)
+            cumulative = cumulative + count
+            mean = c[1]
+            count = c[2]
+        end
+    end
+    list.append(result, mean)
+    list.append(result, count)
+    return result
+end
+
+local function digest_add(digest, val)
+    list.append(digest, val)
+    list.append(digest, 1)
+    if list.size(digest) > 8 * DIGEST_SIZE then
+        return digest_compress(digest)
+    end
+    return digest
+end
+
+local function digest_merge(a, b)
+    for i = 1, list.size(b) do
+        list.append(a, b[i])
+    end
+    return digest_compress(a)
+end
+
+local function digest_quantile(digest, q)
+    digest = digest_compress(digest)
+    local n = list.size(digest)
+    if n == 0 then
+        return nil
+    end
+    local total = 0
+    for i = 2, n, 2 do
+        total = total + digest[i]
+    end
+    local target = q * total
+    local cumulative = 0
+    local previousMean = nil
+    local previousCenter = 0
+    for i = 1, n, 2 do
+        local mean = digest[i]
+        local center = cumulative + digest[i + 1] / 2
+        if target <= center then
+            if previousMean == nil then
+                return mean
+            end
+            return previousMean + (mean - previousMean) * (target - previousCenter) / (center - previousCenter)
+        end
+        previousMean = mean
+        previousCenter = center
+        cumulative = cumulative + digest[i + 1]
+    end
+    return previousMean
+end
+
+function sketch_stats(stream, ...)
+    local parm = {...}
+    local keys = {}
+    local funcs = {}
+    local names = {}
+    local params = {}
+    for i = 1, #parm do
+        local key = tostring(parm[i])
+        local func, name, param = string.match(key, '^%s*([%w_]+)%s*%(%s*([%w_%*]+)%s*,?%s*([%d%.]*)%s*%)')
+        keys[i] = key
+        funcs[i] = string.lower(func or '')
+        names[i] = name
+        params[i] = tonumber(param)
+    end
+
+    local function aggregator(state, rec)
+        for i = 1, #keys do
+            local key = keys[i]
+            local func = funcs[i]
+            local val = (names[i] == '*' and 1) or rec[names[i]]
+            if val ~= nil then
+                local s = state[key]
+                if func == 'count' then
+                    state[key] = (s or 0) + 1
+                elseif func == 'sum' then
+                    state[key] = (s or 0) + val
+                elseif func == 'sumsqs' then
+                    state[key] = (s or 0) + val ^ 2
+                elseif func == 'min' then
+                    state[key] = ((s == nil or val < s) and val) or s
+                elseif func == 'max' then
+                    state[key] = ((s == nil or val > s) and val) or s
+                elseif func == 'avg' then
+                    s = s or list{0, 0}
+                    s[1] = s[1] + val
+                    s[2] = s[2] + 1
+                    state[key] = s
+                elseif func == 'approx_count_distinct' then
+                    s = s or hll_new()
+                    hll_add(s, val)
+                    state[key] = s
+                elseif func == 'approx_percentile' then
+                    state[key] = digest_add(s or list(), val)
+                end
+            end
+        end
+        return state
+    end
+
+    local function reducer(a, b)
+        local out = map()
+        for i = 1, #keys do
+            local key = keys[i]
+            local func = funcs[i]
+            local x = a[key]
+            local y = b[key]
+            if x == nil or y == nil then
+                out[key] = x or y
+            elseif func == 'count' or func == 'sum' or func == 'sumsqs' then
+                out[key] = x + y
+            elseif func == 'min' then
+                out[key] = (y < x and y) or x
+            elseif func == 'max' then
+                out[key] = (y > x and y) or x
+            elseif func == 'avg' then
+                out[key] = list{x[1] + y[1], x[2] + y[2]}
+            elseif func == 'approx_count_distinct' then
+                out[key] = hll_merge(x, y)
+            elseif func == 'approx_percentile' then
+                out[key] = digest_merge(x, y)
+            end
+        end
+        return out
+    end
+
+    local function finalizer(state)
+        local out = map()
+        for i = 1, #keys do
+            local key = keys[i]
+            local func = funcs[i]
+            local s = state[key]
+            if func == 'count' then
+                out[key] = s or 0
+            elseif func == 'approx_count_distinct' then
+                out[key] = (s and hll_estimate(s)) or 0
+            elseif s ~= nil then
+                if func == 'avg' then
+                    out[key] = s[1] / s[2]
+                elseif func == 'approx_percentile' then
+                    out[key] = digest_quantile(s, params[i] or 0.5)
+                else
+                    out[key] = s
+                end
+            end
+        end
+        return out
+    end
+
+    return stream : aggregate(map(), aggregator) : reduce(reducer) : map(finalizer)
+end
@@ -0,0 +1,44 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.InfoPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikeHost;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikePort;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getClient;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterInfoTest {
+    private final IAerospikeClient client = getClient();
+
+    @Test
+    void stableCommandIsCached() {
+        ClusterInfo info = ClusterInfo.of(client, new InfoPolicy(), 0);
+        List<String> namespaces = info.request("namespaces");
+        assertTrue(namespaces.stream().anyMatch(ns -> ns.contains(NAMESPACE)));
+        assertSame(namespaces, info.request("namespaces"));
+
+        ClusterInfo.invalidate(client);
+        assertNotSame(namespaces, info.request("namespaces"));
+    }
+
+    @Test
+    void cacheIsSharedByClientsOfSameCluster() {
+        List<String> namespaces = ClusterInfo.of(client, new InfoPolicy(), 0).request("namespaces");
+        try (AerospikeClient other = new AerospikeClient(aerospikeHost, aerospikePort)) {
+            assertSame(namespaces, ClusterInfo.of(other, new InfoPolicy(), 0).request("namespaces"));
+        }
+    }
+
+    @Test
+    void defaultInfo() {
+        assertTrue(ClusterInfo.of(client, new InfoPolicy(), 0).request().containsKey("build"));
+    }
+}
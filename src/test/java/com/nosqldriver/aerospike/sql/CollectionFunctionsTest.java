@@ -0,0 +1,126 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.IndexType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.DATA;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.deleteAllRecords;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getClient;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getTestConnection;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.write;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of functions {@code array_contains}, {@code map_contains_key} and {@code map_contains_value} executed
+ * with and without collection indexes.
+ */
+class CollectionFunctionsTest {
+    private static final String[] INDEXES = {"DATA_TAGS_INDEX", "DATA_ATTRS_KEYS_INDEX", "DATA_ATTRS_VALUES_INDEX"};
+
+    @BeforeAll
+    static void init() {
+        deleteAllRecords(NAMESPACE, DATA);
+        WritePolicy writePolicy = new WritePolicy();
+        write(writePolicy, new Key(NAMESPACE, DATA, 1), new Bin("id", 1), new Bin("tags", asList("red", "green")), new Bin("scores", asList(1, 2)), new Bin("attrs", map("color", "red")));
+        write(writePolicy, new Key(NAMESPACE, DATA, 2), new Bin("id", 2), new Bin("tags", asList("green", "blue")), new Bin("scores", asList(2, 3)), new Bin("attrs", map("size", "large")));
+        write(writePolicy, new Key(NAMESPACE, DATA, 3), new Bin("id", 3), new Bin("tags", asList("blue")), new Bin("scores", asList(3)), new Bin("attrs", map("color", "blue")));
+    }
+
+    @AfterAll
+    static void dropAll() {
+        deleteAllRecords(NAMESPACE, DATA);
+    }
+
+    @AfterEach
+    void dropIndexes() {
+        for (String index : INDEXES) {
+            try {
+                getClient().dropIndex(null, NAMESPACE, DATA, index).waitTillComplete();
+            } catch (AerospikeException e) {
+                if (e.getResultCode() != 201) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void arrayContains(boolean index) throws SQLException {
+        if (index) {
+            getClient().createIndex(null, NAMESPACE, DATA, INDEXES[0], "tags", IndexType.STRING, IndexCollectionType.LIST).waitTillComplete();
+        }
+        assertIds("select id from data where array_contains(tags, 'green')", 1, 2);
+        assertIds("select id from data where array_contains(tags, 'blue') and id>2", 3);
+        assertIds("select id from data where array_contains(tags, 'red') or array_contains(tags, 'blue')", 1, 2, 3);
+        assertIds("select id from data where array_contains(scores, 3)", 2, 3);
+        assertIds("select id from data where array_contains(tags, 'yellow')");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void mapContainsKey(boolean index) throws SQLException {
+        if (index) {
+            getClient().createIndex(null, NAMESPACE, DATA, INDEXES[1], "attrs", IndexType.STRING, IndexCollectionType.MAPKEYS).waitTillComplete();
+        }
+        assertIds("select id from data where map_contains_key(attrs, 'color')", 1, 3);
+        assertIds("select id from data where map_contains_key(attrs, 'weight')");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void mapContainsValue(boolean index) throws SQLException {
+        if (index) {
+            getClient().createIndex(null, NAMESPACE, DATA, INDEXES[2], "attrs", IndexType.STRING, IndexCollectionType.MAPVALUES).waitTillComplete();
+        }
+        assertIds("select id from data where map_contains_value(attrs, 'blue')", 3);
+        assertIds("select id from data where map_contains_value(attrs, 'red') and array_contains(tags, 'green')", 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void mapFieldEquality(boolean index) throws SQLException {
+        if (index) {
+            getClient().createIndex(null, NAMESPACE, DATA, INDEXES[1], "attrs", IndexType.STRING, IndexCollectionType.MAPKEYS).waitTillComplete();
+        }
+        assertIds("select id from data where attrs[color]='blue'", 3);
+        assertIds("select id from data where attrs[color]='green'");
+        assertIds("select id from data where attrs[size]='large' and id>1", 2);
+        assertIds("select id from data where attrs[color]='red' and array_contains(tags, 'green')", 1);
+    }
+
+    private void assertIds(String sql, Integer ... expectedIds) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (ResultSet rs = getTestConnection().createStatement().executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList(expectedIds)), ids, sql);
+    }
+
+    private static Map<String, String> map(String key, String value) {
+        Map<String, String> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+}
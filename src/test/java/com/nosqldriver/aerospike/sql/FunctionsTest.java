@@ -1,6 +1,10 @@
 package com.nosqldriver.aerospike.sql;
 
+import com.nosqldriver.util.DoubleBinaryFunction;
+import com.nosqldriver.util.FunctionManager;
+import com.nosqldriver.util.LongUnaryFunction;
 import com.nosqldriver.util.ThrowingConsumer;
+import com.nosqldriver.util.TypedFunction;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
@@ -13,6 +17,7 @@ import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikeRootUrl;
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FunctionsTest {
@@ -40,6 +45,18 @@ class FunctionsTest {
                 rs -> {assertEquals(2, rs.getDouble(1)); assertEquals(3, rs.getInt(2));});
     }
 
+    @Test
+    void typedFunctions() throws SQLException {
+        test(format("custom.function.hypot=%s&custom.function.cube=%s", Hypot.class.getName(), Cube.class.getName()),
+                "select hypot(3, 4), cube(3)",
+                rs -> {assertEquals(5, rs.getDouble(1)); assertEquals(27, rs.getLong(2));});
+    }
+
+    @Test
+    void typedFunctionMustBeCallable() {
+        assertThrows(IllegalArgumentException.class, () -> new FunctionManager(null).addFunction("typed", TypedOnly.class.getName()));
+    }
+
 
     private <T> void test(String params, String query, ThrowingConsumer<ResultSet, SQLException> f) throws SQLException {
         Connection conn = DriverManager.getConnection(format("%s?%s", aerospikeRootUrl, params));
@@ -62,4 +79,25 @@ class FunctionsTest {
             return Math.sqrt(d);
         }
     }
+
+    public static class Hypot implements DoubleBinaryFunction {
+        @Override
+        public double applyAsDouble(double x, double y) {
+            return Math.hypot(x, y);
+        }
+    }
+
+    public static class Cube implements LongUnaryFunction {
+        @Override
+        public long applyAsLong(long n) {
+            return n * n * n;
+        }
+    }
+
+    public static class TypedOnly implements TypedFunction {
+        @Override
+        public Class<?> getReturnType() {
+            return Long.class;
+        }
+    }
 }
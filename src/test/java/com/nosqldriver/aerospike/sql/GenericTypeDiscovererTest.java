@@ -1,6 +1,9 @@
 package com.nosqldriver.aerospike.sql;
 
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
 import com.aerospike.client.policy.QueryPolicy;
+import com.nosqldriver.Person;
 import com.aerospike.client.query.KeyRecord;
 import com.aerospike.client.query.Statement;
 import com.nosqldriver.sql.DataColumn;
@@ -90,6 +93,43 @@ class GenericTypeDiscovererTest {
         assertDiscoveredColumns(createTypeDiscoverer(10), all);
     }
 
+    @Test
+    void discoverCustomObjectFields() {
+        Map<String, Object> record = Collections.singletonMap("person", new Person(1, "John", "Lennon", 1940, 5));
+        TypeDiscoverer discoverer = new GenericTypeDiscoverer<Map<String, Object>>((catalog, table) -> singletonList(record), r -> r, functionManager, emptySet());
+        Set<DataColumn> expected = new HashSet<>(asList(
+                DataColumnRole.DATA.create(NAMESPACE, DATA, "person", "person").withType(Types.OTHER),
+                DataColumnRole.HIDDEN.create(NAMESPACE, DATA, "person[id]", "person[id]").withType(Types.INTEGER),
+                DataColumnRole.HIDDEN.create(NAMESPACE, DATA, "person[firstName]", "person[firstName]").withType(Types.VARCHAR),
+                DataColumnRole.HIDDEN.create(NAMESPACE, DATA, "person[lastName]", "person[lastName]").withType(Types.VARCHAR),
+                DataColumnRole.HIDDEN.create(NAMESPACE, DATA, "person[yearOfBirth]", "person[yearOfBirth]").withType(Types.INTEGER),
+                DataColumnRole.HIDDEN.create(NAMESPACE, DATA, "person[kidsCount]", "person[kidsCount]").withType(Types.INTEGER),
+                DataColumnRole.HIDDEN.create(NAMESPACE, DATA, "person[class]", "person[class]").withType(Types.OTHER)
+        ));
+        // the second discovery uses cached class schema
+        for (int i = 0; i < 2; i++) {
+            assertDiscoveredColumns(discoverer, singletonList(DataColumnRole.DATA.create(NAMESPACE, DATA, "person", "person")), expected);
+        }
+    }
+
+    @Test
+    void discoverFromFetchedRecord() {
+        KeyRecord fetched = new KeyRecord(new Key(NAMESPACE, DATA, 1), new Record(Collections.singletonMap("name", "Adam"), 0, 0));
+        // client is not needed: the sampling query must not be performed when record is already fetched
+        BiFunction<String, String, Iterable<KeyRecord>> fetcher = new KeyRecordFetcherFactory(new QueryPolicy()).createKeyRecordsFetcher(null, NAMESPACE, DATA, () -> fetched);
+        TypeDiscoverer discoverer = new GenericTypeDiscoverer<>(fetcher, recordDataExtractor, functionManager, emptySet());
+        assertDiscoveredColumns(discoverer, singletonList(DataColumnRole.DATA.create(NAMESPACE, DATA, "*", "*")), singleton(DataColumnRole.DATA.create(NAMESPACE, DATA, "name", "name").withType(Types.VARCHAR)));
+    }
+
+    @Test
+    void discoverFromEmptyFetchedResult() throws SQLException {
+        writeData();
+        BiFunction<String, String, Iterable<KeyRecord>> fetcher = new KeyRecordFetcherFactory(new QueryPolicy()).createKeyRecordsFetcher(getClient(), NAMESPACE, DATA, () -> null);
+        assertDiscoveredColumns(new GenericTypeDiscoverer<>(fetcher, recordDataExtractor, functionManager, 10, emptySet()), asList(
+                DataColumnRole.DATA.create(NAMESPACE, DATA, "name", "name"),
+                DataColumnRole.DATA.create(NAMESPACE, DATA, "mother", "mother"),
+                DataColumnRole.DATA.create(NAMESPACE, DATA, "father", "father")));
+    }
 
     void assertDiscoveredColumns(TypeDiscoverer discoverer, List<DataColumn> columns) {
         assertDiscoveredColumns(
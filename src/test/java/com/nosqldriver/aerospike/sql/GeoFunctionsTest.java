@@ -0,0 +1,122 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.IndexType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.DATA;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.deleteAllRecords;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getClient;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getTestConnection;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.write;
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of geospatial functions {@code st_within}, {@code st_contains} and {@code st_dwithin} executed
+ * with and without geospatial indexes.
+ */
+class GeoFunctionsTest {
+    private static final String[] INDEXES = {"DATA_LOC_INDEX", "DATA_AREA_INDEX"};
+    private static final String SAN_FRANCISCO = "{\"type\":\"Point\",\"coordinates\":[-122.42,37.77]}";
+    private static final String OAKLAND = "{\"type\":\"Point\",\"coordinates\":[-122.27,37.8]}";
+    private static final String NEW_YORK = "{\"type\":\"Point\",\"coordinates\":[-74.0,40.71]}";
+    private static final String BAY_AREA = "{\"type\":\"Polygon\",\"coordinates\":[[[-123.0,37.0],[-121.0,37.0],[-121.0,38.5],[-123.0,38.5],[-123.0,37.0]]]}";
+    private static final String NEW_YORK_AREA = "{\"type\":\"Polygon\",\"coordinates\":[[[-75.0,40.0],[-73.0,40.0],[-73.0,41.5],[-75.0,41.5],[-75.0,40.0]]]}";
+
+    @BeforeAll
+    static void init() {
+        deleteAllRecords(NAMESPACE, DATA);
+        WritePolicy writePolicy = new WritePolicy();
+        write(writePolicy, new Key(NAMESPACE, DATA, 1), new Bin("id", 1), Bin.asGeoJSON("loc", SAN_FRANCISCO), Bin.asGeoJSON("area", BAY_AREA));
+        write(writePolicy, new Key(NAMESPACE, DATA, 2), new Bin("id", 2), Bin.asGeoJSON("loc", OAKLAND));
+        write(writePolicy, new Key(NAMESPACE, DATA, 3), new Bin("id", 3), Bin.asGeoJSON("loc", NEW_YORK), Bin.asGeoJSON("area", NEW_YORK_AREA));
+    }
+
+    @AfterAll
+    static void dropAll() {
+        deleteAllRecords(NAMESPACE, DATA);
+    }
+
+    @AfterEach
+    void dropIndexes() {
+        for (String index : INDEXES) {
+            try {
+                getClient().dropIndex(null, NAMESPACE, DATA, index).waitTillComplete();
+            } catch (AerospikeException e) {
+                if (e.getResultCode() != 201) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void within(boolean index) throws SQLException {
+        if (index) {
+            getClient().createIndex(null, NAMESPACE, DATA, INDEXES[0], "loc", IndexType.GEO2DSPHERE).waitTillComplete();
+        }
+        assertIds(format("select id from data where st_within(loc, '%s')", BAY_AREA), 1, 2);
+        assertIds(format("select id from data where st_within(loc, '%s') and id<2", BAY_AREA), 1);
+        assertIds(format("select id from data where st_within(loc, '%s') or st_within(loc, '%s')", BAY_AREA, NEW_YORK_AREA), 1, 2, 3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void withinDistance(boolean index) throws SQLException {
+        if (index) {
+            getClient().createIndex(null, NAMESPACE, DATA, INDEXES[0], "loc", IndexType.GEO2DSPHERE).waitTillComplete();
+        }
+        assertIds("select id from data where st_dwithin(loc, -122.42, 37.77, 1000)", 1);
+        assertIds("select id from data where st_dwithin(loc, -122.42, 37.77, 20000)", 1, 2);
+        assertIds("select id from data where st_dwithin(loc, 0, 0, 1000)");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void contains(boolean index) throws SQLException {
+        if (index) {
+            getClient().createIndex(null, NAMESPACE, DATA, INDEXES[1], "area", IndexType.GEO2DSPHERE).waitTillComplete();
+        }
+        assertIds(format("select id from data where st_contains(area, '%s')", OAKLAND), 1);
+        assertIds(format("select id from data where st_contains(area, '%s')", NEW_YORK), 3);
+    }
+
+    @Test
+    void readGeoJson() throws SQLException {
+        try (ResultSet rs = getTestConnection().createStatement().executeQuery(format("select id, loc from data where st_within(loc, '%s')", NEW_YORK_AREA))) {
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt("id"));
+            assertEquals(NEW_YORK, rs.getString("loc"));
+            assertFalse(rs.next());
+        }
+    }
+
+    private void assertIds(String sql, Integer ... expectedIds) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (ResultSet rs = getTestConnection().createStatement().executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList(expectedIds)), ids, sql);
+    }
+}
@@ -0,0 +1,177 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.sql.DriverPolicy;
+import com.nosqldriver.util.SneakyThrower;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.sql.Types.VARCHAR;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataCatalogTest {
+    private final AtomicInteger tablesCalls = new AtomicInteger();
+    private final AtomicInteger columnsCalls = new AtomicInteger();
+
+    private final MetadataCatalog.Loader loader = new MetadataCatalog.Loader() {
+        @Override
+        public List<Properties> tables() {
+            tablesCalls.incrementAndGet();
+            return asList(table("test", "people"), table("test", "instruments"), table("test", "people"));
+        }
+
+        @Override
+        public List<Properties> indexes() {
+            return singletonList(table("test", "people"));
+        }
+
+        @Override
+        public List<MetadataCatalog.Column> columns(String catalog, String table) {
+            columnsCalls.incrementAndGet();
+            return singletonList(new MetadataCatalog.Column(catalog, table, "name", VARCHAR, "varchar"));
+        }
+    };
+
+    @Test
+    void notCached() {
+        MetadataCatalog catalog = new MetadataCatalog(loader, new DriverPolicy());
+        assertEquals(3, catalog.getTables().size());
+        assertEquals(3, catalog.getTables().size());
+        assertEquals(2, tablesCalls.get());
+
+        Map<String, List<MetadataCatalog.Column>> columns = catalog.getColumns(catalog.getTables());
+        assertEquals(2, columns.size());
+        assertEquals("name", columns.get("test.people").get(0).name);
+        assertEquals(2, columnsCalls.get());
+    }
+
+    @Test
+    void cached() {
+        DriverPolicy policy = new DriverPolicy();
+        policy.catalogRefreshInterval = 60000;
+        try (MetadataCatalog catalog = new MetadataCatalog(loader, policy)) {
+            assertEquals(3, catalog.getTables().size());
+            assertEquals(2, catalog.getColumns(catalog.getTables()).size());
+            assertEquals(1, catalog.getIndexes().size());
+            assertEquals(1, tablesCalls.get());
+            assertEquals(2, columnsCalls.get());
+        }
+    }
+
+    @Test
+    void persisted() throws IOException {
+        File file = File.createTempFile("catalog", ".json");
+        try {
+            assertTrue(file.delete());
+            DriverPolicy policy = new DriverPolicy();
+            policy.catalogRefreshInterval = 60000;
+            policy.catalogFile = file.getPath();
+            try (MetadataCatalog catalog = new MetadataCatalog(loader, policy)) {
+                assertEquals(3, catalog.getTables().size());
+            }
+            assertTrue(file.exists());
+
+            MetadataCatalog.Loader failingLoader = new MetadataCatalog.Loader() {
+                @Override
+                public List<Properties> tables() {
+                    throw new IllegalStateException();
+                }
+
+                @Override
+                public List<Properties> indexes() {
+                    throw new IllegalStateException();
+                }
+
+                @Override
+                public List<MetadataCatalog.Column> columns(String catalog, String table) {
+                    throw new IllegalStateException();
+                }
+            };
+            // warm start: the catalog is read from file, background refresh failure does not affect it
+            try (MetadataCatalog catalog = new MetadataCatalog(failingLoader, policy)) {
+                assertEquals(3, catalog.getTables().size());
+                assertEquals(new HashSet<>(asList("test.people", "test.instruments")), catalog.getColumns(catalog.getTables()).keySet());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void fileIsRefreshedByOneCatalog() throws IOException {
+        File file = File.createTempFile("catalog", ".json");
+        try {
+            assertTrue(file.delete());
+            DriverPolicy policy = new DriverPolicy();
+            policy.catalogRefreshInterval = 60000;
+            policy.catalogFile = file.getPath();
+            try (MetadataCatalog first = new MetadataCatalog(loader, policy)) {
+                assertEquals(3, first.getTables().size());
+                assertEquals(1, tablesCalls.get());
+                try (MetadataCatalog second = new MetadataCatalog(loader, policy)) {
+                    // the second catalog reads the file written by the first one and does not start its own refresh
+                    assertEquals(3, second.getTables().size());
+                    assertEquals("name", second.getColumns(second.getTables()).get("test.people").get(0).name);
+                    assertEquals(1, tablesCalls.get());
+                    assertEquals(2, columnsCalls.get());
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void refreshContinuesAfterFailure() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        MetadataCatalog.Loader flakyLoader = new MetadataCatalog.Loader() {
+            @Override
+            public List<Properties> tables() {
+                // the first background refresh fails, the next one finds new table
+                return loads.incrementAndGet() < 3 ? singletonList(table("test", "people")) : asList(table("test", "people"), table("test", "instruments"));
+            }
+
+            @Override
+            public List<Properties> indexes() {
+                return emptyList();
+            }
+
+            @Override
+            public List<MetadataCatalog.Column> columns(String catalog, String table) {
+                if (loads.get() == 2) {
+                    return SneakyThrower.sneakyThrow(new SQLException("Cluster is not available"));
+                }
+                return loader.columns(catalog, table);
+            }
+        };
+        DriverPolicy policy = new DriverPolicy();
+        policy.catalogRefreshInterval = 50;
+        try (MetadataCatalog catalog = new MetadataCatalog(flakyLoader, policy)) {
+            assertEquals(1, catalog.getTables().size());
+            long deadline = System.currentTimeMillis() + 10000;
+            while (catalog.getTables().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(2, catalog.getTables().size());
+            assertTrue(loads.get() >= 3);
+        }
+    }
+
+    private static Properties table(String ns, String set) {
+        Properties props = new Properties();
+        props.setProperty("ns", ns);
+        props.setProperty("set", set);
+        return props;
+    }
+}
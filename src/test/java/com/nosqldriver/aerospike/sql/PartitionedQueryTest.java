@@ -0,0 +1,147 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.policy.WritePolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.DATA;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.deleteAllRecords;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getTestConnection;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of reading partitions of select statement split by {@link AerospikeStatement#executePartitioned(String, int)}.
+ */
+class PartitionedQueryTest {
+    private static final int SIZE = 1000;
+
+    @BeforeAll
+    static void init() {
+        deleteAllRecords(NAMESPACE, DATA);
+        WritePolicy writePolicy = new WritePolicy();
+        for (int i = 0; i < SIZE; i++) {
+            write(writePolicy, new Key(NAMESPACE, DATA, i), new Bin("id", i), new Bin("even", i % 2 == 0 ? 1 : 0));
+        }
+    }
+
+    @AfterAll
+    static void dropAll() {
+        deleteAllRecords(NAMESPACE, DATA);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 7})
+    void partitionsCoverSetWithoutOverlap(int n) throws SQLException, InterruptedException, ExecutionException {
+        AerospikePartitionedQuery query = getTestConnection().createStatement().unwrap(AerospikeStatement.class).executePartitioned("select id from data", n);
+        assertEquals(n, query.getPartitionsCount());
+        ExecutorService executor = Executors.newFixedThreadPool(n);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int partition = i;
+                futures.add(executor.submit(() -> ids(query.partition(partition))));
+            }
+            List<Integer> ids = new ArrayList<>();
+            for (Future<List<Integer>> future : futures) {
+                List<Integer> partitionIds = future.get();
+                assertTrue(n == 1 || partitionIds.size() < SIZE, "Partition contains all records");
+                ids.addAll(partitionIds);
+            }
+            assertEquals(SIZE, ids.size());
+            assertEquals(IntStream.range(0, SIZE).boxed().collect(Collectors.toSet()), new HashSet<>(ids));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void partitionsWithWhere() throws SQLException {
+        AerospikePartitionedQuery query = getTestConnection().createStatement().unwrap(AerospikeStatement.class).executePartitioned("select id from data where even=1", 3);
+        Set<Integer> ids = new HashSet<>();
+        int count = 0;
+        for (int i = 0; i < query.getPartitionsCount(); i++) {
+            List<Integer> partitionIds = ids(query.partition(i));
+            count += partitionIds.size();
+            ids.addAll(partitionIds);
+        }
+        assertEquals(SIZE / 2, count);
+        assertEquals(IntStream.range(0, SIZE).filter(i -> i % 2 == 0).boxed().collect(Collectors.toSet()), ids);
+    }
+
+    @Test
+    void queryByPrimaryKeyIsNotSplit() throws SQLException {
+        AerospikePartitionedQuery query = getTestConnection().createStatement().unwrap(AerospikeStatement.class).executePartitioned("select id from data where PK=1", 2);
+        assertEquals(1, ids(query.partition(0)).size());
+        assertEquals(0, ids(query.partition(1)).size());
+    }
+
+    @Test
+    void sampleIsSplitIntoNonEmptyPartitions() throws SQLException {
+        int sample = ids(getTestConnection().createStatement().executeQuery("select id from data tablesample (10 percent)")).size();
+        // modulo of the sample (10) and number of partitions (2) are not coprime
+        AerospikePartitionedQuery query = getTestConnection().createStatement().unwrap(AerospikeStatement.class).executePartitioned("select id from data tablesample (10 percent)", 2);
+        List<Integer> first = ids(query.partition(0));
+        List<Integer> second = ids(query.partition(1));
+        assertTrue(first.size() > 0);
+        assertTrue(second.size() > 0);
+        assertEquals(sample, first.size() + second.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "select id from data limit 10",
+            "select id from data offset 10",
+            "select id from data order by id",
+            "select count(*) from data",
+            "select even, count(*) from data group by even",
+            "select distinct(even) from data",
+    })
+    void notPartitionable(String sql) throws SQLException {
+        AerospikeStatement statement = getTestConnection().createStatement().unwrap(AerospikeStatement.class);
+        assertThrows(SQLException.class, () -> statement.executePartitioned(sql, 2));
+    }
+
+    @Test
+    void wrongArguments() throws SQLException {
+        AerospikeStatement statement = getTestConnection().createStatement().unwrap(AerospikeStatement.class);
+        assertThrows(SQLException.class, () -> statement.executePartitioned("select id from data", 0));
+        assertThrows(SQLException.class, () -> statement.executePartitioned("delete from data", 2));
+        AerospikePartitionedQuery query = statement.executePartitioned("select id from data", 2);
+        assertThrows(SQLException.class, () -> query.partition(2));
+        assertThrows(SQLException.class, () -> query.partition(-1));
+    }
+
+    private static List<Integer> ids(ResultSet rs) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try {
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+            }
+        } finally {
+            rs.close();
+        }
+        return ids;
+    }
+}
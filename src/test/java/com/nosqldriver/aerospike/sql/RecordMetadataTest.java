@@ -0,0 +1,96 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.policy.WritePolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.DATA;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.deleteAllRecords;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getTestConnection;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.write;
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of filtering by record metadata {@code LAST_UPDATE_TIME} and {@code VOID_TIME}.
+ */
+class RecordMetadataTest {
+    private static long updateTime;
+
+    @BeforeAll
+    static void init() throws InterruptedException {
+        deleteAllRecords(NAMESPACE, DATA);
+        WritePolicy writePolicy = new WritePolicy();
+        writePolicy.expiration = -1; // never expire
+        write(writePolicy, new Key(NAMESPACE, DATA, 1), new Bin("id", 1), new Bin("void_time", 5));
+        Thread.sleep(1000);
+        updateTime = System.currentTimeMillis();
+        Thread.sleep(1000);
+        write(writePolicy, new Key(NAMESPACE, DATA, 2), new Bin("id", 2));
+        write(writePolicy, new Key(NAMESPACE, DATA, 3), new Bin("id", 3));
+    }
+
+    @AfterAll
+    static void dropAll() {
+        deleteAllRecords(NAMESPACE, DATA);
+    }
+
+    @Test
+    void lastUpdateTime() throws SQLException {
+        assertIds(format("select id from data where LAST_UPDATE_TIME > %d", updateTime), 2, 3);
+        assertIds(format("select id from data where LAST_UPDATE_TIME <= %d", updateTime), 1);
+        assertIds(format("select id from data where LAST_UPDATE_TIME > %d and id < 3", updateTime), 2);
+        assertIds(format("select id from data where LAST_UPDATE_TIME between %d and %d", updateTime, System.currentTimeMillis() + 60000), 2, 3);
+    }
+
+    @Test
+    void voidTime() throws SQLException {
+        assertIds("select id from data where VOID_TIME = 0", 1, 2, 3);
+        assertIds("select id from data where VOID_TIME > 0");
+    }
+
+    @Test
+    void binWithNameOfMetadataInLowerCase() throws SQLException {
+        assertIds("select id from data where void_time = 5", 1);
+        assertIds("select id from data where void_time = 5 and VOID_TIME = 0", 1);
+    }
+
+    @Test
+    void metadataInConditionEvaluatedOnClient() {
+        assertThrows(SQLException.class, () -> assertIds(format("select id from data where LAST_UPDATE_TIME > %d or id * 2 > 4", updateTime)));
+        assertThrows(SQLException.class, () -> assertIds(format("select id from data where LAST_UPDATE_TIME > %d.5", updateTime)));
+        assertThrows(SQLException.class, () -> assertIds(format("select id from data where PK between 1 and 3 and LAST_UPDATE_TIME > %d", updateTime)));
+    }
+
+    @Test
+    void metadataComparedWithParameter() {
+        assertThrows(SQLException.class, () -> {
+            try (PreparedStatement ps = getTestConnection().prepareStatement("select id from data where LAST_UPDATE_TIME > ?")) {
+                ps.setLong(1, updateTime);
+                ps.executeQuery().close();
+            }
+        });
+    }
+
+    private void assertIds(String sql, Integer ... expectedIds) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (ResultSet rs = getTestConnection().createStatement().executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList(expectedIds)), ids, sql);
+    }
+}
@@ -0,0 +1,86 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.policy.WritePolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.DATA;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.deleteAllRecords;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getTestConnection;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@code TABLESAMPLE} clause and {@code SAMPLE} hint.
+ */
+class SampleTest {
+    private static final int SIZE = 1000;
+
+    @BeforeAll
+    static void init() {
+        deleteAllRecords(NAMESPACE, DATA);
+        WritePolicy writePolicy = new WritePolicy();
+        for (int i = 0; i < SIZE; i++) {
+            write(writePolicy, new Key(NAMESPACE, DATA, i), new Bin("id", i), new Bin("even", i % 2 == 0 ? 1 : 0));
+        }
+    }
+
+    @AfterAll
+    static void dropAll() {
+        deleteAllRecords(NAMESPACE, DATA);
+    }
+
+    @Test
+    void tableSample() throws SQLException {
+        int count = count("select * from data tablesample (10 percent)");
+        assertTrue(count > SIZE / 20 && count < SIZE / 5, "Unexpected sample size " + count);
+    }
+
+    @Test
+    void tableSampleWithWhere() throws SQLException {
+        int all = count("select * from data tablesample (10 percent)");
+        int even = count("select * from data tablesample (10 percent) where even=1");
+        assertTrue(even > 0 && even < all, "Unexpected sample size " + even);
+    }
+
+    @Test
+    void fullTableSample() throws SQLException {
+        assertEquals(SIZE, count("select * from data tablesample (100 percent)"));
+    }
+
+    @Test
+    void wrongTableSamplePercent() {
+        assertThrows(SQLException.class, () -> count("select * from data tablesample (0 percent)"));
+    }
+
+    @Test
+    void sampleHint() throws SQLException {
+        int count = count("select /*+ sample(50) */ * from data");
+        assertTrue(count > 0 && count <= 50, "Unexpected sample size " + count);
+    }
+
+    @Test
+    void sampleOfQueryByPrimaryKey() {
+        assertThrows(SQLException.class, () -> count("select * from data tablesample (10 percent) where PK=1"));
+        assertThrows(SQLException.class, () -> count("select /*+ sample(50) */ * from data where PK in (1, 2)"));
+    }
+
+    private int count(String sql) throws SQLException {
+        int count = 0;
+        try (ResultSet rs = getTestConnection().createStatement().executeQuery(sql)) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
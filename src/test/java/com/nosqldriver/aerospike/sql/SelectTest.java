@@ -52,12 +52,14 @@ import static com.nosqldriver.TestUtils.getDisplayName;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.PEOPLE;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.SELECT_ALL;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikeTestUrl;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.assertFindColumn;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.beatles;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.createIndex;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.dropIndexSafely;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.executeQuery;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.executeQueryPreparedStatement;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getConnection;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.getTestConnection;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.toListOfMaps;
 import static com.nosqldriver.sql.DataColumn.DataColumnRole.DATA;
@@ -76,6 +78,7 @@ import static java.sql.Types.VARCHAR;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.assertSame;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -287,6 +290,33 @@ class SelectTest {
         assertEquals("Filtering by PK supports =, !=, IN", assertThrows(SQLException.class, () -> testConn.createStatement().executeQuery(sql)).getMessage());
     }
 
+    @VisibleForPackage // visible for tests
+    @SuppressWarnings("unused") // referenced from annotation VariableSource
+    private static final Stream<Arguments> pkRange = Stream.of(
+            Arguments.of("select * from people where PK between 2 and 3", new String[] {"Paul", "George"}),
+            Arguments.of("select * from people where PK between 3 and 10", new String[] {"George", "Ringo"}),
+            Arguments.of("select * from people where PK>1 and PK<4", new String[] {"Paul", "George"}),
+            Arguments.of("select * from people where PK>=1 and PK<=4", new String[] {"John", "Paul", "George", "Ringo"}),
+            Arguments.of("select * from people where PK>=3 and PK<=2", new String[0]),
+            Arguments.of("select * from people where PK between 1 and 10 and kids_count > 2", new String[] {"Paul", "Ringo"}),
+            Arguments.of("select * from people where PK>=2 and year_of_birth=1940", new String[] {"Ringo"}),
+            Arguments.of("select first_name from people where PK between 1 and 10 and kids_count > 2", new String[] {"Paul", "Ringo"}),
+            Arguments.of("select first_name from people where PK between 1 and 10 and (kids_count > 2 or year_of_birth=1940) and last_name<>'Lennon'", new String[] {"Paul", "Ringo"})
+    );
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @VariableSource("pkRange")
+    void selectPkRange(String query, String[] expected) throws SQLException {
+        assertEquals(asList(expected), toListOfMaps(testConn.createStatement().executeQuery(query)).stream().map(e -> (String)e.get("first_name")).collect(toList()));
+    }
+
+    @Test
+    void selectPkRangeByBatches() throws SQLException {
+        try (Connection conn = getConnection(aerospikeTestUrl + "?policy.driver.pkRangeBatchSize=1")) {
+            ResultSet rs = conn.createStatement().executeQuery("select first_name from people where PK between 0 and 5");
+            assertEquals(asList("John", "Paul", "George", "Ringo"), toListOfMaps(rs).stream().map(e -> (String)e.get("first_name")).collect(toList()));
+        }
+    }
+
     @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
     @ValueSource(strings = {
             "select * from people where PK>?",
@@ -1119,6 +1149,73 @@ class SelectTest {
         assertSelect(sql, 1, 4);
     }
 
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select * from people where year_of_birth=1940 and kids_count*2>4",
+            "select * from people where kids_count*2>4 and year_of_birth=1940",
+            "select * from people where year_of_birth=1940 and (kids_count-1)*2=4 and last_name='Starr'",
+            "select * from people where year_of_birth=1940 and kids_count+0>2 and (first_name='Ringo' or first_name='Paul')",
+            "select * from people where year_of_birth=1940 and (first_name='John' or kids_count*2>4) and last_name+''='Starr'",
+    })
+    void selectWithPushedDownAndCalculatedConditions(String sql) throws SQLException {
+        assertSelect(sql, 4);
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select * from people where year_of_birth>=1942 and year_of_birth<1943",
+            "select * from people where year_of_birth>1940 and year_of_birth<=1942 and year_of_birth>=1941",
+            "select * from people where year_of_birth>1941.5 and year_of_birth<1942.5",
+            "select * from people where year_of_birth>1940 and year_of_birth<1942.9",
+    })
+    void selectByMergedRangesOfIndexedField(String sql) throws SQLException {
+        createIndex("year_of_birth", IndexType.NUMERIC);
+        assertSelect(sql, 2);
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(booleans = {true, false})
+    void selectByFloatingPointComparison(boolean index) throws SQLException {
+        if (index) {
+            createIndex("year_of_birth", IndexType.NUMERIC);
+        }
+        assertSelect("select * from people where year_of_birth>1941.5", 2, 3);
+        assertSelect("select * from people where year_of_birth>1943 and year_of_birth<1942");
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select first_name from people where year_of_birth=1940 and kids_count*2>4",
+            "select first_name from people where kids_count*2>4 and last_name='Starr'",
+            "select first_name from people where kids_count*2>4 and year_of_birth<1942",
+    })
+    void selectNarrowProjectionWithCalculatedConditions(String sql) throws SQLException {
+        try (ResultSet rs = testConn.createStatement().executeQuery(sql)) {
+            assertEquals(1, rs.getMetaData().getColumnCount());
+            assertEquals(asList("Ringo"), toListOfMaps(rs).stream().map(e -> e.get("first_name")).collect(toList()));
+        }
+    }
+
+    @Test
+    void selectWithIndexedAndCalculatedConditions() throws SQLException {
+        createIndex("year_of_birth", IndexType.NUMERIC);
+        assertSelect("select * from people where year_of_birth=1940 and kids_count*2>4", 4);
+    }
+
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select * from people where year_of_birth=1940 and first_name='John'",
+            "select * from people where first_name='John' and year_of_birth=1940",
+            "select * from people where year_of_birth between 1900 and 2000 and first_name='John'",
+            "select * from people where first_name='John' and year_of_birth between 1900 and 2000",
+    })
+    void selectOneRecordByTwoIndexedFields(String sql) throws SQLException {
+        createIndex("first_name", IndexType.STRING);
+        createIndex("year_of_birth", IndexType.NUMERIC);
+        assertSelect(sql, 1);
+    }
+
 
     @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
     @ValueSource(strings = {
@@ -1391,6 +1488,30 @@ class SelectTest {
         assertSelect("select * from people where first_name in ('Paul', 'George')", 2, 3);
     }
 
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select * from people where first_name in ('Paul', 'George')",
+            "select * from people where first_name='Paul' or first_name='George'",
+            "select * from people where (first_name='Paul' or first_name='George') and year_of_birth>1900",
+            "select * from people where first_name in ('Paul', 'George', 'Nobody')",
+    })
+    void selectSeveralRecordsByStringIndexedColumnDisjunction(String sql) throws SQLException {
+        createIndex("first_name", IndexType.STRING);
+        assertSelect(sql, 2, 3);
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select * from people where year_of_birth in (1942, 1943)",
+            "select * from people where year_of_birth=1942 or year_of_birth=1943",
+            "select * from people where year_of_birth between 1941 and 1942 or year_of_birth between 1942 and 1943",
+            "select * from people where year_of_birth=1942 or first_name='George'",
+    })
+    void selectSeveralRecordsByNumericIndexedColumnDisjunction(String sql) throws SQLException {
+        createIndex("year_of_birth", IndexType.NUMERIC);
+        assertSelect(sql, 2, 3);
+    }
+
 
     @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
     @ValueSource(strings = {"1",  "2", "3", "4","1, 2", "2, 3", "3, 4", "1, 2, 3, 4"})
@@ -1556,6 +1677,13 @@ class SelectTest {
         assertAggregateOneField(sql, "count(*)", "count(*)", 4);
     }
 
+    @Test
+    void countAllExact() throws SQLException {
+        try (Connection conn = getConnection(aerospikeTestUrl + "?policy.driver.exactCount=true")) {
+            assertAggregateOneField(conn, "select count(*) from people", "count(*)", "count(*)", 4);
+        }
+    }
+
 
     @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
     @ValueSource(strings = {
@@ -1594,6 +1722,49 @@ class SelectTest {
         assertAggregateOneField(getDisplayName(), "min(year_of_birth)", "oldest", 1940);
     }
 
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select approx_count_distinct(year_of_birth) as years from people",
+            "select approx_count_distinct(year_of_birth) as years from (select * from people)"
+    })
+    void approxCountDistinctYearOfBirth(String sql) throws SQLException {
+        assertAggregateOneField(sql, "approx_count_distinct(year_of_birth)", "years", 3);
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select approx_percentile(year_of_birth, 0.5) as median from people",
+            "select approx_percentile(year_of_birth, 0.5) as median from (select * from people)"
+    })
+    void approxMedianYearOfBirth(String sql) throws SQLException {
+        ResultSet rs = testConn.createStatement().executeQuery(sql);
+        assertEquals(DOUBLE, rs.getMetaData().getColumnType(1));
+        assertTrue(rs.next());
+        assertEquals(1941.0, rs.getDouble("median"), 0.001);
+        assertFalse(rs.next());
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "select year_of_birth, approx_count_distinct(first_name) as names, approx_percentile(kids_count, 0.5) as kids from people group by year_of_birth order by year_of_birth",
+            "select year_of_birth, approx_count_distinct(first_name) as names, approx_percentile(kids_count, 0.5) as kids from (select * from people) group by year_of_birth order by year_of_birth"
+    })
+    void groupByWithApproximateFunctions(String sql) throws SQLException {
+        ResultSet rs = testConn.createStatement().executeQuery(sql);
+        assertTrue(rs.next());
+        assertEquals(1940, rs.getInt("year_of_birth"));
+        assertEquals(2, rs.getInt("names"));
+        assertTrue(rs.next());
+        assertEquals(1942, rs.getInt("year_of_birth"));
+        assertEquals(1, rs.getInt("names"));
+        assertEquals(5.0, rs.getDouble("kids"), 0.001);
+        assertTrue(rs.next());
+        assertEquals(1943, rs.getInt("year_of_birth"));
+        assertEquals(1, rs.getInt("names"));
+        assertEquals(1.0, rs.getDouble("kids"), 0.001);
+        assertFalse(rs.next());
+    }
+
 
 
     @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
@@ -1718,6 +1889,45 @@ class SelectTest {
         assertEquals("n", md.getColumnLabel(2));
     }
 
+    @Test
+    @DisplayName("select year_of_birth, count(*) from people group by year_of_birth order by year_of_birth desc limit 2")
+    void groupByYearOfBirthOrderByLimit() throws SQLException {
+        ResultSet rs = testConn.createStatement().executeQuery(getDisplayName());
+        List<List<Integer>> actual = new ArrayList<>();
+        while (rs.next()) {
+            actual.add(asList(rs.getInt(1), rs.getInt(2)));
+        }
+        assertEquals(asList(asList(1943, 1), asList(1942, 1)), actual);
+    }
+
+    @Test
+    @DisplayName("select year_of_birth, count(*) from people group by year_of_birth limit 2")
+    void groupByYearOfBirthLimit() throws SQLException {
+        ResultSet rs = testConn.createStatement().executeQuery(getDisplayName());
+        Map<Integer, Integer> expected = new HashMap<>();
+        expected.put(1940, 2);
+        expected.put(1942, 1);
+        expected.put(1943, 1);
+        int n = 0;
+        while (rs.next()) {
+            assertEquals(expected.get(rs.getInt(1)).intValue(), rs.getInt(2));
+            n++;
+        }
+        assertEquals(2, n);
+    }
+
+    @Test
+    @DisplayName("select distinct(year_of_birth) as year from people limit 2")
+    void selectDistinctYearOfBirthLimit() throws SQLException {
+        ResultSet rs = testConn.createStatement().executeQuery(getDisplayName());
+        Collection<Integer> years = new HashSet<>();
+        while (rs.next()) {
+            years.add(rs.getInt(1));
+        }
+        assertEquals(2, years.size());
+        assertTrue(asList(1940, 1942, 1943).containsAll(years));
+    }
+
     @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
     @ValueSource(strings = {
             "select first_name, count(*) from people",
@@ -2192,7 +2402,11 @@ class SelectTest {
     }
 
     private void assertAggregateOneField(String sql, String name, String label, int expected) throws SQLException {
-        ResultSet rs = testConn.createStatement().executeQuery(sql);
+        assertAggregateOneField(testConn, sql, name, label, expected);
+    }
+
+    private void assertAggregateOneField(Connection conn, String sql, String name, String label, int expected) throws SQLException {
+        ResultSet rs = conn.createStatement().executeQuery(sql);
         assertEquals(NAMESPACE, rs.getMetaData().getCatalogName(1));
         assertEquals("", rs.getMetaData().getSchemaName(1));
         ResultSetMetaData md = rs.getMetaData();
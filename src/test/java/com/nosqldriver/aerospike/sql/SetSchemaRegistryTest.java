@@ -0,0 +1,69 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.Bin;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.policy.InfoPolicy;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.query.KeyRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.DATA;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikeHost;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikePort;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.deleteAllRecords;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.getClient;
+import static com.nosqldriver.aerospike.sql.TestDataUtils.write;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SetSchemaRegistryTest {
+    private final IAerospikeClient client = getClient();
+    private final ClusterInfo clusterInfo = ClusterInfo.of(client, new InfoPolicy(), 0);
+    private final SetSchemaRegistry registry = new SetSchemaRegistry();
+
+    @AfterEach
+    void dropAll() {
+        deleteAllRecords(NAMESPACE, DATA);
+    }
+
+    @Test
+    void emptySet() {
+        assertNull(registry.getSchema(client, clusterInfo, new QueryPolicy(), NAMESPACE, DATA, 10, 0));
+    }
+
+    @Test
+    void mergeSparseBins() {
+        write(null, new Key(NAMESPACE, DATA, 1), new Bin("name", "Adam"));
+        write(null, new Key(NAMESPACE, DATA, 2), new Bin("name", "Eve"), new Bin("age", 1L));
+        write(null, new Key(NAMESPACE, DATA, 3), new Bin("name", "Cain"), new Bin("mother", "Eve"), new Bin("age", 1.5));
+        KeyRecord schema = registry.getSchema(client, clusterInfo, new QueryPolicy(), NAMESPACE, DATA, 10, 0);
+        assertEquals(new HashSet<>(asList("name", "age", "mother")), schema.record.bins.keySet());
+        assertEquals(Double.class, schema.record.bins.get("age").getClass());
+    }
+
+    @Test
+    void cacheAndInvalidate() {
+        write(null, new Key(NAMESPACE, DATA, 1), new Bin("name", "Adam"));
+        KeyRecord schema = registry.getSchema(client, clusterInfo, new QueryPolicy(), NAMESPACE, DATA, 10, 60000);
+        assertSame(schema, registry.getSchema(client, clusterInfo, new QueryPolicy(), NAMESPACE, DATA, 10, 60000));
+
+        write(null, new Key(NAMESPACE, DATA, 2), new Bin("name", "Eve"), new Bin("age", 1L));
+        registry.invalidate(DATA);
+        assertEquals(new HashSet<>(asList("name", "age")), registry.getSchema(client, clusterInfo, new QueryPolicy(), NAMESPACE, DATA, 10, 60000).record.bins.keySet());
+    }
+
+    @Test
+    void registryIsSharedByClientsOfSameCluster() {
+        try (AerospikeClient other = new AerospikeClient(aerospikeHost, aerospikePort)) {
+            assertSame(SetSchemaRegistry.of(client), SetSchemaRegistry.of(other));
+        }
+    }
+}
@@ -4,7 +4,9 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import static com.nosqldriver.sql.DataColumn.DataColumnRole.AGGREGATED;
@@ -13,6 +15,7 @@ import static com.nosqldriver.sql.DataColumn.DataColumnRole.GROUP;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -161,6 +164,87 @@ class AggregatedValuesTest {
 
 
 
+    @Test
+    void approximateFunctions() {
+        severalColumns(
+                asList(DATA.create("test", "data", "year", null), DATA.create("test", "data", "first_name", null)),
+                asList(
+                        AGGREGATED.create("test", "data", "approx_count_distinct(year)", null),
+                        AGGREGATED.create("test", "data", "approx_percentile(year, 0.5)", null),
+                        AGGREGATED.create("test", "data", "APPROX_PERCENTILE(year, 1)", null)
+                ),
+                asList(asList(1940, "John"), asList(1942, "Paul"), asList(1943, "George"), asList(1940, "Ringo")),
+                singletonList(asList(3L, 1941.0, 1943.0)));
+    }
+
+    @Test
+    void groupByApproximateCountDistinct() {
+        severalColumns(
+                asList(DATA.create("test", "data", "year", null), DATA.create("test", "data", "first_name", null)),
+                asList(
+                        GROUP.create("test", "data", "year", null),
+                        AGGREGATED.create("test", "data", "approx_count_distinct(first_name)", null)
+                ),
+                asList(asList(1940, "John"), asList(1942, "Paul"), asList(1943, "George"), asList(1940, "Ringo"), asList(1940, "John")),
+                asList(asList(1940, 2L), asList(1942, 1L), asList(1943, 1L)));
+    }
+
+    @Test
+    void groupBySpilledToDisk() {
+        List<List<?>> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            data.add(asList(i % 100, i));
+        }
+        List<DataColumn> columns = asList(DATA.create("test", "data", "g", null), DATA.create("test", "data", "n", null));
+        List<DataColumn> aggregation = asList(GROUP.create("test", "data", "g", null), AGGREGATED.create("test", "data", "count(*)", null), AGGREGATED.create("test", "data", "sum(n)", null));
+        List<List<?>> expected = new AggregatedValues(new ListRecordSet(null, "", "", columns, data), aggregation).read();
+        List<List<?>> actual = new AggregatedValues(new ListRecordSet(null, "", "", columns, data), aggregation, 0).read();
+        assertEquals(100, expected.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+
+    @Test
+    void mergePartials() {
+        List<DataColumn> partialColumns = asList(
+                DATA.create("test", "data", "year", null),
+                DATA.create("test", "data", "count(*)", null),
+                DATA.create("test", "data", "sum(kids)", null),
+                DATA.create("test", "data", "min(kids)", null),
+                DATA.create("test", "data", "avg(kids)", null)
+        );
+        List<List<?>> partials = asList(
+                asList(1940L, 1L, 2L, 2L, asList(2L, 1L)),
+                asList(1942L, 1L, 1L, 1L, asList(1L, 1L)),
+                asList(1940L, 1L, 5L, 5L, asList(5L, 1L)),
+                asList(1943L, 0L, null, null, asList(0L, 0L))
+        );
+        ResultSet rs = new ListRecordSet(null, "", "", partialColumns, partials);
+        List<DataColumn> columns = asList(
+                GROUP.create("test", "data", "year", null),
+                AGGREGATED.create("test", "data", "count(*)", null),
+                AGGREGATED.create("test", "data", "sum(kids)", null),
+                AGGREGATED.create("test", "data", "min(kids)", null),
+                AGGREGATED.create("test", "data", "avg(kids)", null)
+        );
+        List<?> actual = new AggregatedValues(rs, columns, Long.MAX_VALUE, true).read();
+        assertEquals(asList(asList(1940L, 2L, 7L, 2L, 3.5), asList(1942L, 1L, 1L, 1L, 1.0), asList(1943L, 0L, null, null, null)), actual);
+    }
+
+    @Test
+    void mergePartialsOfUnsupportedFunction() {
+        List<DataColumn> partialColumns = asList(DATA.create("test", "data", "year", null), DATA.create("test", "data", "approx_count_distinct(kids)", null));
+        ResultSet rs = new ListRecordSet(null, "", "", partialColumns, singletonList(asList(1940L, null)));
+        List<DataColumn> columns = asList(GROUP.create("test", "data", "year", null), AGGREGATED.create("test", "data", "approx_count_distinct(kids)", null));
+        assertThrows(SQLException.class, () -> new AggregatedValues(rs, columns, Long.MAX_VALUE, true));
+    }
+
+    @Test
+    void columnThatIsNeitherGroupedNorAggregated() {
+        ResultSet rs = new ListRecordSet(null, "", "", asList(DATA.create("test", "data", "year", null), DATA.create("test", "data", "name", null)), singletonList(asList(1940L, "John")));
+        List<DataColumn> columns = asList(GROUP.create("test", "data", "year", null), DATA.create("test", "data", "name", null), AGGREGATED.create("test", "data", "count(*)", null));
+        assertThrows(IllegalStateException.class, () -> new AggregatedValues(rs, columns).read());
+    }
+
     private void oneColumn(Iterable<List<?>> data, List<?> expected) {
         severalColumns(singletonList(DATA.create("test", "data", "n", "n")), aggregationColumns, data, expected);
     }
@@ -15,7 +15,9 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DataColumnBasedResultSetMetaDataTest {
     private static final int MAX_BLOCK_SIZE = 128 * 1024;
@@ -150,6 +152,26 @@ class DataColumnBasedResultSetMetaDataTest {
         assertColumn(md, 2, "test", "people", "last_name", "surname", 0, 0);
     }
 
+    @Test
+    void findColumn() {
+        DataColumnBasedResultSetMetaData md = new DataColumnBasedResultSetMetaData(asList(
+                DATA.create("test", "people", "first_name", "given_name"),
+                HIDDEN.create("test", "people", "kids", null),
+                HIDDEN.create("test", "people", "kids[0]", null),
+                DATA.create("test", "people", "last_name", null)
+        ));
+        assertEquals(1, md.findColumn("given_name"));
+        assertEquals(1, md.findColumn("GIVEN_NAME"));
+        assertEquals(2, md.findColumn("last_name"));
+        assertEquals(0, md.findColumn("first_name"));
+        assertEquals(0, md.findColumn("kids"));
+
+        assertTrue(md.isAccessible("given_name"));
+        assertTrue(md.isAccessible("kids[0]"));
+        assertFalse(md.isAccessible("kids"));
+        assertFalse(md.isAccessible("first_name"));
+        assertTrue(new DataColumnBasedResultSetMetaData(emptyList()).isAccessible("anything"));
+    }
 
 
     private void assertColumn(ResultSetMetaData md, int column, String expectedCatalog, String expectedTable, String expectedName, String expectedLabel, int expectedType, int expectedPrecision) throws SQLException {
@@ -3,18 +3,37 @@ package com.nosqldriver.sql;
 import com.nosqldriver.util.FunctionManager;
 import org.junit.jupiter.api.Test;
 
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.DATA;
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.EXPRESSION;
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.HIDDEN;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 
 class ExpressionAwareResultSetFactoryTest {
     private final ExpressionAwareResultSetFactory exprFactory = new ExpressionAwareResultSetFactory(new FunctionManager(null), new DriverPolicy());
 
+    @Test
+    void wrapWithoutExpressions() {
+        ResultSet rs = mock(ResultSet.class);
+        assertSame(rs, exprFactory.wrap(rs, new FunctionManager(null), asList(DATA.create("test", "data", "n", "n"), HIDDEN.create("test", "data", "m", null)), true));
+    }
+
+    @Test
+    void wrapWithExpressions() {
+        ResultSet rs = mock(ResultSet.class);
+        assertTrue(exprFactory.wrap(rs, new FunctionManager(null), asList(DATA.create("test", "data", "n", "n"), EXPRESSION.create("test", "data", "n+1", "next")), true) instanceof ExpressionAwareResultSet);
+    }
+
     @Test
     void emptyExpression() {
         assertVariableNames("", emptyList());
@@ -0,0 +1,125 @@
+package com.nosqldriver.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashAggregatorTest {
+    private final List<Supplier<HashAggregator.Accumulator>> accumulators = asList(Accumulators.of("count", null), Accumulators.of("sum", null), Accumulators.of("max", null));
+
+    @Test
+    void encodeDecode() {
+        List<Object> values = asList(null, 1L, 2, 3.14, "text", true, (short)4, (byte)5, 6.5f, new HashMap<>(), asList("a", "b"));
+        assertEquals(values, HashAggregator.decode(HashAggregator.encode(values)));
+        assertEquals(emptyList(), HashAggregator.decode(HashAggregator.encode(emptyList())));
+    }
+
+    @Test
+    void encodeDecodeNestedCollectionsAndTime() {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("list", asList(1L, asList("x", null)));
+        map.put(2L, "two");
+        Timestamp timestamp = new Timestamp(1_000_000L);
+        timestamp.setNanos(123_456_789);
+        List<Object> values = asList(map, timestamp, new Time(2_000L), new Date(86_400_000L));
+        assertEquals(values, HashAggregator.decode(HashAggregator.encode(values)));
+    }
+
+    @Test
+    void encodeUnsupportedType() {
+        assertThrows(SQLException.class, () -> HashAggregator.encode(singletonList(new StringBuilder("text"))));
+    }
+
+    @Test
+    void inMemory() {
+        HashAggregator aggregator = aggregate(Long.MAX_VALUE, 10_000, 100);
+        assertFalse(aggregator.isSpilled());
+        assertEquals(100, aggregator.size());
+        assertGroups(aggregator, 10_000, 100);
+    }
+
+    @Test
+    void spilled() {
+        HashAggregator aggregator = aggregate(1024, 10_000, 100);
+        assertTrue(aggregator.isSpilled());
+        assertTrue(aggregator.size() < 100);
+        assertGroups(aggregator, 10_000, 100);
+    }
+
+    @Test
+    void spilledWithoutMemory() {
+        HashAggregator aggregator = aggregate(0, 1000, 1000);
+        assertTrue(aggregator.isSpilled());
+        assertGroups(aggregator, 1000, 1000);
+    }
+
+    @Test
+    void spillFilesAreDeleted() {
+        int before = spillFiles();
+        HashAggregator iterated = aggregate(0, 1000, 1000);
+        assertTrue(spillFiles() > before);
+        assertGroups(iterated, 1000, 1000);
+        assertEquals(before, spillFiles());
+
+        HashAggregator closed = aggregate(0, 1000, 1000);
+        Iterator<HashAggregator.Group> it = closed.groups().iterator();
+        it.next();
+        closed.close();
+        assertEquals(before, spillFiles());
+    }
+
+    private int spillFiles() {
+        String[] files = new File(System.getProperty("java.io.tmpdir")).list((dir, name) -> name.startsWith("aerospike-jdbc-aggregation"));
+        return files == null ? 0 : files.length;
+    }
+
+    private HashAggregator aggregate(long memoryLimit, int rows, int groups) {
+        HashAggregator aggregator = new HashAggregator(accumulators, memoryLimit);
+        for (int i = 0; i < rows; i++) {
+            aggregator.add(HashAggregator.encode(asList("group", i % groups)), new Object[] {i, i, i});
+        }
+        return aggregator;
+    }
+
+    private void assertGroups(HashAggregator aggregator, int rows, int groups) {
+        Map<Integer, Object[]> actual = new HashMap<>();
+        for (HashAggregator.Group group : aggregator.groups()) {
+            List<Object> key = group.getKey();
+            assertEquals("group", key.get(0));
+            assertEquals(null, actual.put((Integer)key.get(1), group.getValues()));
+        }
+        assertEquals(groups, actual.size());
+        for (int g = 0; g < groups; g++) {
+            long count = 0;
+            long sum = 0;
+            int max = 0;
+            for (int i = g; i < rows; i += groups) {
+                count++;
+                sum += i;
+                max = i;
+            }
+            Object[] values = actual.get(g);
+            assertEquals(count, values[0]);
+            assertEquals(sum, values[1]);
+            assertEquals(count == 1 ? (Object)max : (Object)(long)max, values[2]);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.nosqldriver.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HyperLogLogTest {
+    @Test
+    void empty() {
+        assertEquals(0L, new HyperLogLog().result());
+    }
+
+    @Test
+    void duplicates() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            hll.add(i % 10);
+        }
+        assertEquals(10L, hll.result());
+    }
+
+    @Test
+    void manyDistinctValues() {
+        int n = 100_000;
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < n; i++) {
+            hll.add("value" + i);
+        }
+        assertEquals(n, hll.result(), n * 0.1);
+    }
+
+    @Test
+    void merge() {
+        HyperLogLog one = new HyperLogLog();
+        HyperLogLog two = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            one.add(i);
+            two.add(i + 10_000);
+        }
+        one.merge(two);
+        assertEquals(30_000, one.result(), 30_000 * 0.1);
+    }
+}
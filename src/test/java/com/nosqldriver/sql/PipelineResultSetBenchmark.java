@@ -0,0 +1,79 @@
+package com.nosqldriver.sql;
+
+import com.nosqldriver.util.FunctionManager;
+import com.nosqldriver.util.SneakyThrower;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.DATA;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+/**
+ * Micro-benchmark of the outermost stages of SELECT: projection, WHERE and OFFSET/LIMIT executed by nested decorators
+ * (as before {@link PipelineResultSet}) and by the pipeline. The source is in memory, so only the overhead of the stages
+ * is measured. Run it by {@code gradle benchmark}; optional arguments are number of rows and number of measured iterations.
+ */
+public class PipelineResultSetBenchmark {
+    private static final List<DataColumn> columns = asList(DATA.create("test", "data", "n", "n"), DATA.create("test", "data", "s", "s"));
+    private static final Predicate<ResultSet> even = rs -> SneakyThrower.get(() -> rs.getLong("n")) % 2 == 0;
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        List<List<?>> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(asList((long)i, "row" + i));
+        }
+        FunctionManager functionManager = new FunctionManager(null);
+        DriverPolicy driverPolicy = new DriverPolicy();
+
+        Function<ResultSet, ResultSet> decorators = source -> new NameCheckResultSetWrapper(
+                new FilteredResultSet(
+                        new FilteredResultSet(new ExpressionAwareResultSet(new ResultSetWrapper(source, columns, true), functionManager, driverPolicy, columns, true), columns, even, true),
+                        columns, new OffsetLimit(10, Long.MAX_VALUE), true),
+                columns, true);
+        Function<ResultSet, ResultSet> pipeline = source -> new PipelineResultSet(
+                new ExpressionAwareResultSetFactory(functionManager, driverPolicy).wrap(new ResultSetWrapper(source, columns, true), functionManager, columns, true),
+                columns, asList(even, new OffsetLimit(10, Long.MAX_VALUE)), true);
+
+        for (int i = 0; i < iterations; i++) {
+            // warm up both variants equally before the measured iterations
+            run(data, decorators);
+            run(data, pipeline);
+        }
+        report("decorators", rows, iterations, data, decorators);
+        report("pipeline", rows, iterations, data, pipeline);
+    }
+
+    private static void report(String name, int rows, int iterations, List<List<?>> data, Function<ResultSet, ResultSet> stages) throws SQLException {
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            long time = run(data, stages);
+            best = Math.min(best, time);
+            total += time;
+        }
+        System.out.println(format("%-10s %8.2f ns/row (best), %8.2f ns/row (mean)", name, (double)best / rows, (double)total / iterations / rows));
+    }
+
+    private static long run(List<List<?>> data, Function<ResultSet, ResultSet> stages) throws SQLException {
+        long start = System.nanoTime();
+        long checksum = 0;
+        try (ResultSet rs = stages.apply(new ListRecordSet(null, "test", "data", columns, data))) {
+            while (rs.next()) {
+                checksum += rs.getLong("n") + rs.getString(2).length();
+            }
+        }
+        long time = System.nanoTime() - start;
+        if (checksum == 0) {
+            throw new IllegalStateException("No rows were read");
+        }
+        return time;
+    }
+}
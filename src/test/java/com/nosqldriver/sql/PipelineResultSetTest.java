@@ -0,0 +1,109 @@
+package com.nosqldriver.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.DATA;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineResultSetTest {
+    private final List<DataColumn> columns = singletonList(DATA.create("catalog", "table", "n", "n"));
+
+    @Test
+    void filterAndLimit() throws SQLException {
+        Collection<Integer> tested = new ArrayList<>();
+        Predicate<ResultSet> even = rs -> {
+            int n = getInt(rs);
+            tested.add(n);
+            return n % 2 == 0;
+        };
+        ResultSet rs = new PipelineResultSet(source(), columns, asList(even, new OffsetLimit(1, 2)), true);
+        assertTrue(rs.next());
+        assertEquals(4, rs.getInt("n"));
+        assertTrue(rs.next());
+        assertEquals(6, rs.getInt(1));
+        assertFalse(rs.next());
+        // the source is not read once the limit is reached
+        assertEquals(asList(1, 2, 3, 4, 5, 6), tested);
+    }
+
+    @Test
+    void lastDoesNotCountRowsAgain() throws SQLException {
+        Collection<Integer> tested = new ArrayList<>();
+        Predicate<ResultSet> even = rs -> {
+            int n = getInt(rs);
+            tested.add(n);
+            return n % 2 == 0;
+        };
+        ResultSet rs = new PipelineResultSet(source(), columns, asList(even, new OffsetLimit(1, 2)), true);
+        assertTrue(rs.first());
+        assertEquals(4, rs.getInt(1));
+        assertTrue(rs.last());
+        assertEquals(6, rs.getInt(1));
+        assertEquals(2, rs.getRow());
+        assertTrue(rs.isLast());
+        assertFalse(rs.next());
+        assertTrue(rs.isAfterLast());
+        assertEquals(asList(1, 2, 3, 4, 5, 6), tested);
+    }
+
+    @Test
+    void lastWithinLimit() throws SQLException {
+        ResultSet rs = new PipelineResultSet(source(), columns, singletonList(new OffsetLimit(8, 5)), true);
+        assertTrue(rs.last());
+        assertEquals(10, rs.getInt(1));
+        assertEquals(2, rs.getRow());
+        assertFalse(rs.next());
+        assertEquals(0, rs.getRow());
+    }
+
+    @Test
+    void absoluteAndRelative() throws SQLException {
+        Predicate<ResultSet> even = rs -> getInt(rs) % 2 == 0;
+        ResultSet rs = new PipelineResultSet(source(), columns, asList(even, new OffsetLimit(1, 3)), true);
+        assertTrue(rs.absolute(2));
+        assertEquals(6, rs.getInt(1));
+        assertTrue(rs.relative(0));
+        assertTrue(rs.relative(1));
+        assertEquals(8, rs.getInt(1));
+        assertTrue(rs.isLast());
+        assertFalse(rs.relative(1));
+        assertTrue(rs.isAfterLast());
+    }
+
+    @Test
+    void noOperators() throws SQLException {
+        ResultSet rs = new PipelineResultSet(source(), columns, new ArrayList<>(), true);
+        int count = 0;
+        while (rs.next()) {
+            count++;
+        }
+        assertEquals(10, count);
+    }
+
+    private ResultSet source() {
+        List<List<?>> data = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            data.add(singletonList(i));
+        }
+        return new ListRecordSet(null, "catalog", "table", columns, data);
+    }
+
+    private int getInt(ResultSet rs) {
+        try {
+            return rs.getInt("n");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.nosqldriver.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class QuantileDigestTest {
+    @Test
+    void empty() {
+        assertNull(new QuantileDigest(0.5).result());
+    }
+
+    @Test
+    void oneValue() {
+        QuantileDigest digest = new QuantileDigest(0.95);
+        digest.add(3.14);
+        assertEquals(3.14, digest.result(), 0.0001);
+    }
+
+    @Test
+    void uniformDistribution() {
+        assertPercentile(0.5, 50_000, 500);
+        assertPercentile(0.95, 95_000, 500);
+        assertPercentile(0.99, 99_000, 200);
+    }
+
+    @Test
+    void merge() {
+        QuantileDigest one = new QuantileDigest(0.9);
+        QuantileDigest two = new QuantileDigest(0.9);
+        for (int i = 0; i < 50_000; i++) {
+            one.add(i);
+            two.add(i + 50_000);
+        }
+        one.merge(two);
+        assertEquals(90_000, one.result(), 500);
+    }
+
+    private void assertPercentile(double percentile, double expected, double delta) {
+        QuantileDigest digest = new QuantileDigest(percentile);
+        Random random = new Random(0);
+        for (int i = 0; i < 100_000; i++) {
+            digest.add(random.nextInt(100_000));
+        }
+        assertEquals(expected, digest.result(), delta);
+    }
+}
@@ -0,0 +1,43 @@
+package com.nosqldriver.util;
+
+import com.nosqldriver.Person;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValueExtractorTest {
+    private final ValueExtractor extractor = new ValueExtractor();
+
+    @Test
+    void getter() {
+        Person person = new Person(1, "John", "Lennon", 1940, 2);
+        assertEquals("John", extractor.getValue(person, "[firstName]"));
+        assertEquals(1940, extractor.getValue(person, "yearOfBirth"));
+        // second call uses cached getter
+        assertEquals("Lennon", extractor.getValue(new Person(2, "Julian", "Lennon", 1963, 0), "[lastName]"));
+    }
+
+    @Test
+    void nested() {
+        Map<String, Object> map = Collections.singletonMap("person", new Person(1, "John", "Lennon", 1940, 2));
+        assertEquals("Lennon", extractor.getValue(map, "[person][lastName]"));
+        assertEquals("Lennon", extractor.getValue(map, "[person.lastName]"));
+        assertNull(extractor.getValue(map, "[nobody][lastName]"));
+    }
+
+    @Test
+    void missingGetter() {
+        Person person = new Person(1, "John", "Lennon", 1940, 2);
+        for (int i = 0; i < 2; i++) { // the second attempt hits the negative cache
+            assertEquals(
+                    "Cannot find getter for field nickname in class class com.nosqldriver.Person",
+                    assertThrows(SQLException.class, () -> extractor.getValue(person, "[nickname]")).getMessage());
+        }
+    }
+}